@@ -14,6 +14,8 @@ function App() {
   const [input, setInput] = useState('');
   const [isLoading, setIsLoading] = useState(false);
   const messagesEndRef = useRef<HTMLDivElement>(null);
+  // One conversation per page load; the server keeps memory only for requests that carry a session id
+  const sessionIdRef = useRef<string>(crypto.randomUUID());
 
   const scrollToBottom = () => {
     messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
@@ -43,7 +45,7 @@ function App() {
     setIsLoading(true);
 
     try {
-      const response = await fetch(`http://localhost:9090/api/logs/query?q=${encodeURIComponent(userMsg)}`);
+      const response = await fetch(`http://localhost:9090/api/logs/query?q=${encodeURIComponent(userMsg)}&sessionId=${encodeURIComponent(sessionIdRef.current)}`);
       const data = await response.json();
 
       const results = data.results as string[];
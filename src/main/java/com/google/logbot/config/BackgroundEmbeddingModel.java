@@ -0,0 +1,60 @@
+package com.google.logbot.config;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Embedding model that is constructed on a background thread.
+ * <p>
+ * Loading the ONNX model takes seconds; starting it off the main thread lets
+ * the rest of the context start in parallel. Calls made before loading has
+ * finished simply wait for it, except {@link #dimension()}, which is known up
+ * front.
+ * </p>
+ */
+public class BackgroundEmbeddingModel implements EmbeddingModel {
+
+    private final CompletableFuture<EmbeddingModel> delegate;
+    private final int dimension;
+
+    public BackgroundEmbeddingModel(Supplier<EmbeddingModel> loader, int dimension) {
+        this.dimension = dimension;
+        this.delegate = CompletableFuture.supplyAsync(loader, runnable -> Thread.ofPlatform()
+                .name("embedding-model-loader")
+                .daemon(true)
+                .start(runnable));
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+        return await().embedAll(segments);
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Blocks until the model has been loaded.
+     *
+     * @return The loaded model.
+     */
+    public EmbeddingModel await() {
+        try {
+            return delegate.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to load embedding model", e.getCause());
+        }
+    }
+}
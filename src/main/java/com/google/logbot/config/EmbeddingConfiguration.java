@@ -2,21 +2,35 @@ package com.google.logbot.config;
 
 import com.google.logbot.service.LogAnalysisTools;
 import com.google.logbot.service.LogAssistant;
+import com.google.logbot.service.OneShotLogAssistant;
+import com.google.logbot.service.QueryDateRange;
+import com.google.logbot.store.ChromaPartitionBackend;
+import com.google.logbot.store.Int8VectorCodec;
+import com.google.logbot.store.PartitionBackend;
+import com.google.logbot.store.PartitionedEmbeddingStore;
+import com.google.logbot.store.ProductQuantizationCodec;
+import com.google.logbot.store.QuantizedPartitionBackend;
+import com.google.logbot.store.SessionChatMemoryStore;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.memory.chat.MessageWindowChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import dev.langchain4j.memory.chat.TokenWindowChatMemory;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
 import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
+import dev.langchain4j.service.AiServiceContext;
 import dev.langchain4j.service.AiServices;
 import dev.langchain4j.store.embedding.EmbeddingStore;
-import dev.langchain4j.store.embedding.chroma.ChromaEmbeddingStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
 
+import java.nio.file.Path;
 import java.time.Duration;
 
 /**
@@ -34,33 +48,101 @@ public class EmbeddingConfiguration {
     @Value("${langchain4j.open-ai.chat-model.api-key:demo}")
     private String openAiApiKey;
 
+    @Value("${startup.background-warmup:true}")
+    private boolean backgroundWarmup;
+
     /**
      * Creates an Embedding Model bean using the AllMiniLmL6V2 ONNX model.
      * This model runs locally in the JVM and does not require an external API.
+     * With background warmup enabled the ONNX model is loaded on a separate
+     * thread while the rest of the context starts.
      *
      * @return The configured {@link EmbeddingModel}.
      */
     @Bean
     public EmbeddingModel embeddingModel() {
+        if (backgroundWarmup) {
+            return new BackgroundEmbeddingModel(AllMiniLmL6V2EmbeddingModel::new, vectorDimension);
+        }
         return new AllMiniLmL6V2EmbeddingModel();
     }
 
     @Value("${chroma.url:http://localhost:8000}")
     private String chromaUrl;
 
+    @Value("${chroma.collection-prefix:log-embeddings}")
+    private String chromaCollectionPrefix;
+
+    @Value("${vector.quantization:none}")
+    private String vectorQuantization;
+
+    @Value("${vector.dimension:384}")
+    private int vectorDimension;
+
+    @Value("${vector.directory:${java.io.tmpdir}/log-bot-vectors}")
+    private String vectorDirectory;
+
+    @Value("${vector.rerank-factor:4}")
+    private int vectorRerankFactor;
+
+    @Value("${vector.pq.subspaces:96}")
+    private int pqSubspaces;
+
+    @Value("${vector.pq.training-size:4096}")
+    private int pqTrainingSize;
+
+    @Value("${vector.pq.iterations:8}")
+    private int pqIterations;
+
+    /**
+     * Creates a day-partitioned Embedding Store.
+     * Each day is stored in its own partition so searches can skip irrelevant
+     * days and retention can drop whole partitions. With
+     * {@code vector.quantization=none} partitions are ChromaDB collections;
+     * {@code int8} (4x smaller) and {@code pq} (16x smaller) keep compressed
+     * vectors in memory and re-rank the top candidates with exact vectors on
+     * local disk.
+     *
+     * @return The {@link PartitionedEmbeddingStore} for {@link TextSegment}s.
+     */
+    @Bean
+    @Profile("!loadtest")
+    public PartitionedEmbeddingStore embeddingStore() {
+        return new PartitionedEmbeddingStore(partitionBackend());
+    }
+
+    private PartitionBackend partitionBackend() {
+        Path directory = Path.of(vectorDirectory);
+        return switch (vectorQuantization) {
+            case "none" -> new ChromaPartitionBackend(chromaUrl, chromaCollectionPrefix, Duration.ofSeconds(15));
+            case "int8" -> new QuantizedPartitionBackend(directory, chromaCollectionPrefix,
+                    () -> new Int8VectorCodec(vectorDimension), vectorDimension, vectorRerankFactor);
+            case "pq" -> new QuantizedPartitionBackend(directory, chromaCollectionPrefix,
+                    () -> new ProductQuantizationCodec(vectorDimension, pqSubspaces, pqTrainingSize, pqIterations, 42),
+                    vectorDimension, vectorRerankFactor);
+            default -> throw new IllegalArgumentException(
+                    "Unknown vector.quantization (expected none, int8 or pq): " + vectorQuantization);
+        };
+    }
+
+    @Value("${chat.memory.max-tokens:2000}")
+    private int chatMemoryMaxTokens;
+
     /**
-     * Creates a ChromaDB Embedding Store.
-     * Used to store vector embeddings of log entries for persistent semantic
-     * search.
+     * Creates the per-session chat memory provider.
+     * Each session gets a token-bounded window backed by the shared
+     * {@link SessionChatMemoryStore}, which caps and evicts sessions.
      *
-     * @return The {@link EmbeddingStore} for {@link TextSegment}s.
+     * @param chatMemoryStore The bounded store holding all sessions.
+     * @return The {@link ChatMemoryProvider}.
      */
     @Bean
-    public EmbeddingStore<TextSegment> embeddingStore() {
-        return ChromaEmbeddingStore.builder()
-                .baseUrl(chromaUrl)
-                .collectionName("log-embeddings")
-                .timeout(Duration.ofSeconds(15))
+    public ChatMemoryProvider chatMemoryProvider(SessionChatMemoryStore chatMemoryStore) {
+        OpenAiTokenizer tokenizer = new OpenAiTokenizer();
+        return memoryId -> TokenWindowChatMemory.builder()
+                .id(memoryId)
+                .maxTokens(chatMemoryMaxTokens, tokenizer)
+                .chatMemoryStore(chatMemoryStore)
                 .build();
     }
 
@@ -68,31 +150,73 @@ public class EmbeddingConfiguration {
      * Creates the LogAssistant AI Service bean.
      * This service acts as the high-level interface for interacting with the AI.
      * It connects the Chat Model, RAG Retriever, and Tools.
+     * Built lazily (by the startup warmup or the first query) to keep it off the
+     * startup path. The service caches one chat memory per memory id; entries
+     * are removed when the store retires the id, so the cache is bounded by
+     * {@code chat.memory.max-sessions}.
      *
      * @param chatLanguageModel The LLM to use for chat.
      * @param embeddingStore    The store containing log embeddings.
      * @param embeddingModel    The model used to embed queries.
      * @param logAnalysisTools  The tools available to the AI (SQL, etc.).
+     * @param chatMemoryProvider Supplies the memory of each session.
+     * @param chatMemoryStore    Retires memory ids of evicted sessions.
      * @return A proxy instance of the {@link LogAssistant} interface.
      */
     @Bean
+    @Lazy
     public LogAssistant logAssistant(ChatLanguageModel chatLanguageModel,
+            EmbeddingStore<TextSegment> embeddingStore,
+            EmbeddingModel embeddingModel,
+            LogAnalysisTools logAnalysisTools,
+            ChatMemoryProvider chatMemoryProvider,
+            SessionChatMemoryStore chatMemoryStore) {
+        AiServiceContext context = new AiServiceContext(LogAssistant.class);
+        LogAssistant assistant = AiServices.<LogAssistant>builder(context)
+                .chatLanguageModel(chatLanguageModel)
+                .chatMemoryProvider(chatMemoryProvider)
+                .contentRetriever(contentRetriever(embeddingStore, embeddingModel))
+                .tools(logAnalysisTools)
+                .build();
+        chatMemoryStore.onRelease(memoryId -> context.chatMemories.remove(memoryId));
+        return assistant;
+    }
+
+    /**
+     * Creates the memoryless assistant answering requests without a session.
+     * Same model, retriever and tools as {@link #logAssistant}, built lazily.
+     *
+     * @param chatLanguageModel The LLM to use for chat.
+     * @param embeddingStore    The store containing log embeddings.
+     * @param embeddingModel    The model used to embed queries.
+     * @param logAnalysisTools  The tools available to the AI.
+     * @return A proxy instance of the {@link OneShotLogAssistant} interface.
+     */
+    @Bean
+    @Lazy
+    public OneShotLogAssistant oneShotLogAssistant(ChatLanguageModel chatLanguageModel,
             EmbeddingStore<TextSegment> embeddingStore,
             EmbeddingModel embeddingModel,
             LogAnalysisTools logAnalysisTools) {
+        return AiServices.builder(OneShotLogAssistant.class)
+                .chatLanguageModel(chatLanguageModel)
+                .contentRetriever(contentRetriever(embeddingStore, embeddingModel))
+                .tools(logAnalysisTools)
+                .build();
+    }
 
-        ContentRetriever contentRetriever = EmbeddingStoreContentRetriever.builder()
+    private ContentRetriever contentRetriever(EmbeddingStore<TextSegment> embeddingStore,
+            EmbeddingModel embeddingModel) {
+        return EmbeddingStoreContentRetriever.builder()
                 .embeddingStore(embeddingStore)
                 .embeddingModel(embeddingModel)
                 .maxResults(20) // Increased to allow better analysis of multiple errors
                 .minScore(0.6)
-                .build();
-
-        return AiServices.builder(LogAssistant.class)
-                .chatLanguageModel(chatLanguageModel)
-                .chatMemory(MessageWindowChatMemory.withMaxMessages(10))
-                .contentRetriever(contentRetriever)
-                .tools(logAnalysisTools)
+                // Only search the day partitions a question mentions, if any
+                .dynamicFilter(query -> {
+                    QueryDateRange range = QueryDateRange.parse(query.text());
+                    return PartitionedEmbeddingStore.partitionRange(range.from(), range.to());
+                })
                 .build();
     }
 
@@ -102,6 +226,7 @@ public class EmbeddingConfiguration {
      * @return The configured {@link OpenAiChatModel}.
      */
     @Bean
+    @Profile("!loadtest")
     public ChatLanguageModel chatLanguageModel() {
         return OpenAiChatModel.builder()
                 .apiKey(openAiApiKey)
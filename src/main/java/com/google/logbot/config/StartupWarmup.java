@@ -0,0 +1,131 @@
+package com.google.logbot.config;
+
+import com.google.logbot.service.LogAssistant;
+import com.google.logbot.service.OneShotLogAssistant;
+import com.google.logbot.store.PartitionedEmbeddingStore;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background warmup behind the readiness gate.
+ * <p>
+ * Once the context has started, waits for the embedding model, embeds a
+ * warmup batch (JIT and ONNX session warmup), verifies the vector store and
+ * builds the lazy {@link LogAssistant} and {@link OneShotLogAssistant} proxies. Reported as the
+ * {@code startupWarmup} health indicator, which is part of the readiness
+ * group: readiness is OUT_OF_SERVICE until this completes (DOWN if it
+ * fails, including a vector store that stays unreachable past
+ * {@code startup.vector-store-timeout}), so load balancers only route to
+ * warm instances while liveness is unaffected.
+ * </p>
+ */
+@Component
+public class StartupWarmup implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final List<String> WARMUP_LINES = List.of(
+            "2025-12-30 08:16:10.450 ERROR [PaymentService] [PAY-PRC-1002] Payment failed for batch #994. Connection timeout to Gateway.",
+            "java.net.SocketTimeoutException: Connect timed out",
+            "2025-12-30 09:05:12.111 ERROR [CustomerService] [CUST-VAL-ERR] Invalid address format for CustomerID: 8832.",
+            "Account: 9900009123456 | Error: 000201S EMPTY ACTIVE MASTER DATABASE",
+            "Why did the late fee calculation fail?",
+            "Summarize errors");
+
+    private final ApplicationContext context;
+    private final EmbeddingModel embeddingModel;
+    private final PartitionedEmbeddingStore embeddingStore;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration storeTimeout;
+    private volatile boolean warm;
+    private volatile String failure;
+
+    public StartupWarmup(ApplicationContext context, EmbeddingModel embeddingModel,
+            PartitionedEmbeddingStore embeddingStore,
+            @Value("${startup.background-warmup:true}") boolean enabled,
+            @Value("${startup.warmup-batch-size:32}") int batchSize,
+            @Value("${startup.vector-store-timeout:2m}") Duration storeTimeout) {
+        this.context = context;
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingStore;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.storeTimeout = storeTimeout;
+        this.warm = !enabled;
+    }
+
+    /**
+     * Starts the warmup off the main thread as soon as the context is up.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void startWarmup() {
+        if (enabled) {
+            Thread.ofPlatform().name("startup-warmup").daemon(true).start(this::warmup);
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (warm) {
+            return Health.up().build();
+        }
+        if (failure != null) {
+            return Health.down().withDetail("error", failure).build();
+        }
+        return Health.outOfService().withDetail("status", "warming up").build();
+    }
+
+    private void warmup() {
+        long start = System.nanoTime();
+        try {
+            List<TextSegment> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                batch.add(TextSegment.from(WARMUP_LINES.get(i % WARMUP_LINES.size())));
+            }
+            embeddingModel.embedAll(batch);
+            logger.info("Embedding model warm after {} ms", (System.nanoTime() - start) / 1_000_000);
+
+            verifyStore();
+            context.getBean(LogAssistant.class);
+            context.getBean(OneShotLogAssistant.class);
+
+            warm = true;
+            logger.info("Warmup complete after {} ms, accepting traffic", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            failure = e.toString();
+            logger.error("Startup warmup failed, instance stays unready", e);
+        }
+    }
+
+    private void verifyStore() throws InterruptedException {
+        long deadline = System.nanoTime() + storeTimeout.toNanos();
+        for (long backoffMillis = 500;; backoffMillis = Math.min(backoffMillis * 2, 10_000)) {
+            try {
+                embeddingStore.verify();
+                return;
+            } catch (Exception e) {
+                long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMillis <= 0) {
+                    throw new IllegalStateException("Vector store not reachable after " + storeTimeout, e);
+                }
+                long sleepMillis = Math.min(backoffMillis, remainingMillis);
+                logger.warn("Vector store not reachable yet ({}), retrying in {} ms", e.getMessage(), sleepMillis);
+                Thread.sleep(sleepMillis);
+            }
+        }
+    }
+}
@@ -1,11 +1,49 @@
 package com.google.logbot.controller;
 
+import com.google.logbot.model.ErrorSpike;
+import com.google.logbot.model.GrepResult;
+import com.google.logbot.model.IngestionResult;
+import com.google.logbot.service.ErrorRateAnomalyDetector;
 import com.google.logbot.service.LogAssistant;
+import com.google.logbot.service.LogExportService;
+import com.google.logbot.service.LogGrepService;
 import com.google.logbot.service.LogIngestionService;
+import com.google.logbot.service.OneShotLogAssistant;
+import com.google.logbot.service.QueryIntentRouter;
+import com.google.logbot.store.SessionChatMemoryStore;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.memory.ChatMemory;
+import dev.langchain4j.memory.chat.ChatMemoryProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.regex.PatternSyntaxException;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST Controller for the Log Analysis Bot.
@@ -21,10 +59,31 @@ public class LogController {
 
     private final LogIngestionService ingestionService;
     private final LogAssistant logAssistant;
+    private final OneShotLogAssistant oneShotLogAssistant;
+    private final SessionChatMemoryStore chatMemoryStore;
+    private final ChatMemoryProvider chatMemoryProvider;
+    private final ErrorRateAnomalyDetector anomalyDetector;
+    private final QueryIntentRouter intentRouter;
+    private final LogExportService exportService;
+    private final LogGrepService grepService;
+    private final Duration exportTimeout;
 
-    public LogController(LogIngestionService ingestionService, LogAssistant logAssistant) {
+    public LogController(LogIngestionService ingestionService, @Lazy LogAssistant logAssistant,
+            @Lazy OneShotLogAssistant oneShotLogAssistant, SessionChatMemoryStore chatMemoryStore,
+            ChatMemoryProvider chatMemoryProvider,
+            ErrorRateAnomalyDetector anomalyDetector, QueryIntentRouter intentRouter,
+            LogExportService exportService, LogGrepService grepService,
+            @Value("${export.timeout:30m}") Duration exportTimeout) {
         this.ingestionService = ingestionService;
         this.logAssistant = logAssistant;
+        this.oneShotLogAssistant = oneShotLogAssistant;
+        this.chatMemoryStore = chatMemoryStore;
+        this.chatMemoryProvider = chatMemoryProvider;
+        this.anomalyDetector = anomalyDetector;
+        this.intentRouter = intentRouter;
+        this.exportService = exportService;
+        this.grepService = grepService;
+        this.exportTimeout = exportTimeout;
     }
 
     /**
@@ -40,20 +99,208 @@ public class LogController {
         return "Ingestion validation started...";
     }
 
+    /**
+     * Uploads log files (.log) and transaction reports (.txt) as multipart form
+     * data under the "files" field. Parts are spooled to disk by the servlet
+     * container, never to memory, and streamed into the parsers.
+     *
+     * @param files The uploaded files.
+     * @return Per-file row and embedding counts.
+     * @throws IOException if reading an upload fails.
+     */
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public List<IngestionResult> uploadFiles(@RequestParam("files") List<MultipartFile> files) throws IOException {
+        for (MultipartFile file : files) {
+            requireSupported(file.getOriginalFilename());
+        }
+
+        List<IngestionResult> results = new ArrayList<>();
+        for (MultipartFile file : files) {
+            try (InputStream input = file.getInputStream()) {
+                results.add(ingestionService.ingestStream(input, baseName(file.getOriginalFilename())));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Uploads a single file as the raw request body (e.g. {@code curl -X POST -T} or
+     * chunked transfer encoding with Content-Type application/octet-stream).
+     * The body is parsed while it is still arriving, so ingestion overlaps with
+     * the transfer.
+     *
+     * @param filename The file name, which selects the parser (.log or .txt).
+     * @param request  The request whose body is the file content.
+     * @return Row and embedding counts for the file.
+     * @throws IOException if reading the body fails.
+     */
+    @PostMapping("/upload/{filename}")
+    public IngestionResult uploadRaw(@PathVariable String filename, HttpServletRequest request) throws IOException {
+        requireSupported(filename);
+        return ingestionService.ingestStream(request.getInputStream(), baseName(filename));
+    }
+
     /**
      * Handles user chat queries about the logs.
-     * Routines to the AI Assistant for intelligent response generation.
+     * Common structured questions are answered directly by the intent router;
+     * everything else is routed to the AI Assistant for intelligent response
+     * generation. Conversation memory is kept per session when the client sends
+     * a session id, including routed answers so follow-ups can refer to them;
+     * requests without one are answered without keeping any conversation on
+     * the server.
      *
-     * @param q The user's question (e.g., "Summarize errors").
-     * @return A map containing the query, the AI's response, and a count (for
-     *         frontend compat).
+     * @param q         The user's question (e.g., "Summarize errors").
+     * @param sessionId The conversation to continue (optional).
+     * @return A map containing the query, the response, a count (for frontend
+     *         compat), the session id if one was sent and which path answered
+     *         ("router" or "llm").
      */
     @GetMapping("/query")
-    public Map<String, Object> queryLogs(@RequestParam String q) {
-        String answer = logAssistant.chat(q);
-        return Map.of(
-                "query", q,
-                "results", Collections.singletonList(answer), // Frontend expects a list for now
-                "count", 1);
+    public Map<String, Object> queryLogs(@RequestParam String q,
+            @RequestParam(required = false) String sessionId) {
+        boolean hasSession = sessionId != null && !sessionId.isBlank();
+        Optional<QueryIntentRouter.RoutedAnswer> routed = intentRouter.route(q);
+        String answer = routed.map(QueryIntentRouter.RoutedAnswer::answer)
+                .orElseGet(() -> hasSession
+                        ? logAssistant.chat(chatMemoryStore.memoryIdFor(sessionId), q)
+                        : oneShotLogAssistant.answer(q));
+        if (hasSession && routed.isPresent()) {
+            ChatMemory memory = chatMemoryProvider.get(chatMemoryStore.memoryIdFor(sessionId));
+            memory.add(UserMessage.from(q));
+            memory.add(AiMessage.from(answer));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("query", q);
+        response.put("results", Collections.singletonList(answer)); // Frontend expects a list for now
+        response.put("count", 1);
+        if (hasSession) {
+            response.put("sessionId", sessionId);
+        }
+        response.put("source", routed.isPresent() ? "router" : "llm");
+        return response;
+    }
+
+    /**
+     * Returns error codes currently spiking above their baseline.
+     * Served from the in-memory streaming detector; does not query the database.
+     *
+     * @return The detected spikes, most anomalous first.
+     */
+    @GetMapping("/spikes")
+    public List<ErrorSpike> getSpikes() {
+        return anomalyDetector.getSpikes();
+    }
+
+    /**
+     * Greps the raw text of all ingested log entries. Candidates are narrowed
+     * with the trigram index and verified against the patterns in parallel.
+     *
+     * @param pattern One or more patterns that must all match the same entry.
+     * @param literal Whether the patterns are plain text rather than regexes.
+     * @param limit   Maximum number of matches to return.
+     * @return The matches in ingestion order, with search statistics.
+     */
+    @GetMapping("/grep")
+    public GrepResult grepLogs(@RequestParam List<String> pattern,
+            @RequestParam(defaultValue = "false") boolean literal,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return grepService.grep(pattern, literal, limit);
+        } catch (PatternSyntaxException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid pattern: " + e.getDescription());
+        }
+    }
+
+    /**
+     * Exports the log entries matching the given filters as NDJSON (one JSON
+     * object per line) or CSV. Rows are streamed from a database cursor as they
+     * are written, so exports of any size run in constant memory; the export
+     * stops as soon as the client disconnects or after {@code export.timeout}.
+     *
+     * @param errorCode  Exact error code (optional).
+     * @param sourceFile Exact source file (optional).
+     * @param level      Exact level, e.g. ERROR (optional).
+     * @param logType    Exact log type (optional).
+     * @param from       Earliest timestamp, inclusive, ISO format (optional).
+     * @param to         Latest timestamp, exclusive, ISO format (optional).
+     * @param format     "ndjson" (default) or "csv".
+     * @param gzip       Whether to gzip the response body.
+     * @param response   The response the export is streamed to.
+     * @return The export task, run with its own async timeout.
+     */
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportLogs(
+            @RequestParam(required = false) String errorCode,
+            @RequestParam(required = false) String sourceFile,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String logType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) {
+        LogExportService.Format exportFormat = parseFormat(format);
+        LogExportService.ExportFilter filter = new LogExportService.ExportFilter(
+                errorCode, sourceFile, level != null ? level.toUpperCase(Locale.ROOT) : null, logType, from, to);
+
+        String extension = exportFormat == LogExportService.Format.CSV ? "csv" : "ndjson";
+        response.setContentType(exportFormat == LogExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8).toString()
+                : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"logs." + extension + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            OutputStream output = response.getOutputStream();
+            if (gzip) {
+                // Closing ends the deflater even if the export fails; the response stream stays open
+                try (GZIPOutputStream compressed = new GZIPOutputStream(nonClosing(output), 1 << 16)) {
+                    exportService.export(filter, exportFormat, compressed);
+                }
+            } else {
+                exportService.export(filter, exportFormat, output);
+            }
+            output.flush();
+            return null;
+        });
+    }
+
+    private static OutputStream nonClosing(OutputStream output) {
+        return new FilterOutputStream(output) {
+            @Override
+            public void write(byte[] buffer, int offset, int length) throws IOException {
+                out.write(buffer, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    private static LogExportService.Format parseFormat(String format) {
+        try {
+            return LogExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported export format (expected ndjson or csv): " + format);
+        }
+    }
+
+    private void requireSupported(String filename) {
+        if (filename == null || !ingestionService.supports(baseName(filename))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unsupported file type (expected .log or .txt): " + filename);
+        }
+    }
+
+    private static String baseName(String filename) {
+        // Clients may send a path; only the name is kept as metadata
+        String normalized = filename.replace('\\', '/');
+        return normalized.substring(normalized.lastIndexOf('/') + 1);
     }
 }
@@ -0,0 +1,29 @@
+package com.google.logbot.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of an error code whose current rate deviates from its baseline.
+ * <p>
+ * Produced by the streaming anomaly detector for a single
+ * (errorCode, serviceName) pair. The baseline is an exponentially weighted
+ * moving average of past bucket counts.
+ * </p>
+ *
+ * @param errorCode     The error code (e.g., SFTP-DROP-01).
+ * @param serviceName   The service that emitted the errors.
+ * @param bucketStart   Start of the bucket in which the spike was observed.
+ * @param currentCount  Number of errors in that bucket.
+ * @param baseline      EWMA of previous bucket counts.
+ * @param deviation     Number of standard deviations above the baseline.
+ * @param windowCount   Total errors within the sliding window.
+ */
+public record ErrorSpike(
+        String errorCode,
+        String serviceName,
+        LocalDateTime bucketStart,
+        long currentCount,
+        double baseline,
+        double deviation,
+        long windowCount) {
+}
@@ -0,0 +1,22 @@
+package com.google.logbot.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A log entry matched by a grep.
+ *
+ * @param id         Id of the entry.
+ * @param timestamp  Timestamp of the entry.
+ * @param sourceFile The file the entry was ingested from.
+ * @param errorCode  The entry's error code, if any.
+ * @param line       The first line of the block matching the first pattern.
+ * @param block      The full raw block.
+ */
+public record GrepMatch(
+        Long id,
+        LocalDateTime timestamp,
+        String sourceFile,
+        String errorCode,
+        String line,
+        String block) {
+}
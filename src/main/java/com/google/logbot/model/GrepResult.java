@@ -0,0 +1,18 @@
+package com.google.logbot.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a grep over the ingested log entries.
+ *
+ * @param matches    Matching entries in ingestion order, up to the limit.
+ * @param candidates Entries left after narrowing with the trigram index.
+ * @param indexed    Total number of indexed entries.
+ * @param truncated  Whether more matches may exist beyond the limit.
+ */
+public record GrepResult(
+        List<GrepMatch> matches,
+        long candidates,
+        long indexed,
+        boolean truncated) {
+}
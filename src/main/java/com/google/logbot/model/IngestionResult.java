@@ -0,0 +1,11 @@
+package com.google.logbot.model;
+
+/**
+ * Outcome of ingesting a single file.
+ *
+ * @param filename   The ingested file.
+ * @param rows       Structured entries saved to the database.
+ * @param embeddings Segments embedded into the vector store.
+ */
+public record IngestionResult(String filename, long rows, long embeddings) {
+}
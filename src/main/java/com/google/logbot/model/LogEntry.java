@@ -1,6 +1,7 @@
 package com.google.logbot.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -12,9 +13,12 @@ import java.time.LocalDateTime;
  * </p>
  */
 @Entity
-@Table(name = "logs")
+@Table(name = "logs", indexes = @Index(name = "idx_logs_partition_day", columnList = "partitionDay"))
 public class LogEntry {
 
+    /** Column length of {@link #getFullLog()}; longer content must be truncated before saving. */
+    public static final int FULL_LOG_LENGTH = 5000;
+
     /** Unique ID of the log entry. */
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,12 +37,15 @@ public class LogEntry {
     /** The original filename from which this log was ingested. */
     private String sourceFile;
 
+    /** Day partition derived from the timestamp; retention drops whole partitions. */
+    private LocalDate partitionDay;
+
     /** The primary log message or summary. */
     @Column(length = 2000)
     private String message;
 
     /** The full raw content of the log, including stack traces. */
-    @Column(length = 5000)
+    @Column(length = FULL_LOG_LENGTH)
     private String fullLog;
 
     public LogEntry() {
@@ -54,6 +61,7 @@ public class LogEntry {
         this.fullLog = fullLog;
         this.logType = logType;
         this.sourceFile = sourceFile;
+        this.partitionDay = timestamp != null ? timestamp.toLocalDate() : null;
     }
 
     public Long getId() {
@@ -91,4 +99,8 @@ public class LogEntry {
     public String getSourceFile() {
         return sourceFile;
     }
+
+    public LocalDate getPartitionDay() {
+        return partitionDay;
+    }
 }
@@ -1,11 +1,18 @@
 package com.google.logbot.repository;
 
 import com.google.logbot.model.LogEntry;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for accessing LogEntry data from the H2 database.
@@ -55,4 +62,71 @@ public interface LogRepository extends JpaRepository<LogEntry, Long> {
      */
     @Query("SELECT DISTINCT l.sourceFile FROM LogEntry l")
     List<String> findDistinctSourceFiles();
+
+    /**
+     * Retrieves all day partitions that currently hold entries, oldest first.
+     *
+     * @return List of partition days.
+     */
+    @Query("SELECT DISTINCT l.partitionDay FROM LogEntry l WHERE l.partitionDay IS NOT NULL ORDER BY l.partitionDay")
+    List<LocalDate> findDistinctPartitionDays();
+
+    /**
+     * Aggregates errors by error code within a single day partition.
+     *
+     * @param day The partition day.
+     * @return A list of object arrays where [0] is errorCode (String) and [1] is
+     *         count (Long).
+     */
+    @Query("SELECT l.errorCode, COUNT(l) FROM LogEntry l WHERE l.partitionDay = :day AND l.level = 'ERROR' AND l.errorCode IS NOT NULL GROUP BY l.errorCode")
+    List<Object[]> countErrorsByCodeInPartition(LocalDate day);
+
+    /**
+     * Aggregates errors by error code for a source file within a single day
+     * partition.
+     *
+     * @param filename The name of the file to filter by.
+     * @param day      The partition day.
+     * @return A list of object arrays where [0] is errorCode (String) and [1] is
+     *         count (Long).
+     */
+    @Query("SELECT l.errorCode, COUNT(l) FROM LogEntry l WHERE l.partitionDay = :day AND l.sourceFile = :filename AND l.level = 'ERROR' AND l.errorCode IS NOT NULL GROUP BY l.errorCode")
+    List<Object[]> countErrorsByCodeAndFileInPartition(String filename, LocalDate day);
+
+    /**
+     * Drops every entry of a day partition in a single bulk statement.
+     *
+     * @param day The partition day to drop.
+     * @return Number of rows removed.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LogEntry l WHERE l.partitionDay = :day")
+    int deletePartition(LocalDate day);
+
+    /**
+     * Streams all entries matching the given filters, in insertion order, from a
+     * forward-only cursor. Null filters are ignored. Must be consumed inside a
+     * transaction and closed afterwards.
+     *
+     * @param errorCode  Exact error code, or null.
+     * @param sourceFile Exact source file, or null.
+     * @param level      Exact level (e.g. ERROR), or null.
+     * @param logType    Exact log type, or null.
+     * @param from       Earliest timestamp (inclusive), or null.
+     * @param to         Latest timestamp (exclusive), or null.
+     * @return A lazily fetched stream of matching entries.
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true") })
+    @Query("SELECT l FROM LogEntry l WHERE (:errorCode IS NULL OR l.errorCode = :errorCode)"
+            + " AND (:sourceFile IS NULL OR l.sourceFile = :sourceFile)"
+            + " AND (:level IS NULL OR l.level = :level)"
+            + " AND (:logType IS NULL OR l.logType = :logType)"
+            + " AND (:from IS NULL OR l.timestamp >= :from)"
+            + " AND (:to IS NULL OR l.timestamp < :to)"
+            + " ORDER BY l.id")
+    Stream<LogEntry> streamFiltered(String errorCode, String sourceFile, String level, String logType,
+            LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,216 @@
+package com.google.logbot.service;
+
+import com.google.logbot.model.ErrorSpike;
+import com.google.logbot.model.LogEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming anomaly detector for error rates.
+ * <p>
+ * Fed directly by the parsers as {@link LogEntry} records are produced.
+ * Keeps a fixed-size ring buffer of per-bucket counts for every
+ * (errorCode, serviceName) pair together with an EWMA baseline and variance.
+ * Each event costs amortised O(1): idle gaps are folded into the baseline in
+ * closed form, and events older than the bucket still filling are dropped
+ * because their bucket has already been folded. The number of tracked pairs is
+ * capped and the least
+ * recently seen pairs are evicted first, so memory stays bounded no matter how
+ * many distinct codes are ingested. The database is never queried.
+ * </p>
+ */
+@Service
+public class ErrorRateAnomalyDetector {
+
+    private final long bucketSeconds;
+    private final int windowBuckets;
+    private final double alpha;
+    private final double threshold;
+    private final long minCount;
+    private final int minBaselineBuckets;
+
+    /** Access-ordered so the eldest entry is always the least recently updated pair. */
+    private final Map<String, RateWindow> windows;
+
+    /** Most recent event bucket seen across all pairs (event time, not wall clock). */
+    private long latestBucket = Long.MIN_VALUE;
+
+    public ErrorRateAnomalyDetector(
+            @Value("${anomaly.bucket-seconds:60}") long bucketSeconds,
+            @Value("${anomaly.window-buckets:60}") int windowBuckets,
+            @Value("${anomaly.ewma-alpha:0.3}") double alpha,
+            @Value("${anomaly.threshold:3.0}") double threshold,
+            @Value("${anomaly.min-count:5}") long minCount,
+            @Value("${anomaly.min-baseline-buckets:3}") int minBaselineBuckets,
+            @Value("${anomaly.max-keys:10000}") int maxKeys) {
+        this.bucketSeconds = bucketSeconds;
+        this.windowBuckets = windowBuckets;
+        this.alpha = alpha;
+        this.threshold = threshold;
+        this.minCount = minCount;
+        this.minBaselineBuckets = minBaselineBuckets;
+        this.windows = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RateWindow> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    /**
+     * Records a single parsed entry. Entries that are not errors or carry no
+     * error code are ignored.
+     *
+     * @param entry The entry just produced by a parser.
+     */
+    public void record(LogEntry entry) {
+        if (entry.getErrorCode() == null || entry.getTimestamp() == null || !"ERROR".equals(entry.getLevel())) {
+            return;
+        }
+        long bucket = entry.getTimestamp().toEpochSecond(ZoneOffset.UTC) / bucketSeconds;
+        String key = entry.getErrorCode() + '\u0000' + entry.getServiceName();
+
+        synchronized (windows) {
+            RateWindow window = windows.get(key);
+            if (window == null) {
+                window = new RateWindow(entry.getErrorCode(), entry.getServiceName(), windowBuckets, bucket);
+                windows.put(key, window);
+            }
+            window.add(bucket);
+            latestBucket = Math.max(latestBucket, bucket);
+        }
+    }
+
+    /**
+     * Returns all pairs whose latest bucket is a significant deviation from
+     * their baseline, most anomalous first. Only pairs active in the newest
+     * bucket seen, or the one just before it, are considered; an older head
+     * bucket is not "current" any more.
+     *
+     * @return The current spikes, possibly empty.
+     */
+    public List<ErrorSpike> getSpikes() {
+        List<ErrorSpike> spikes = new ArrayList<>();
+        synchronized (windows) {
+            for (RateWindow window : windows.values()) {
+                if (latestBucket - window.headBucket > 1) {
+                    continue;
+                }
+                long current = window.currentCount();
+                double deviation = window.deviation();
+                if (window.closedBuckets >= minBaselineBuckets && current >= minCount && deviation >= threshold) {
+                    spikes.add(new ErrorSpike(
+                            window.errorCode,
+                            window.serviceName,
+                            LocalDateTime.ofEpochSecond(window.headBucket * bucketSeconds, 0, ZoneOffset.UTC),
+                            current,
+                            window.mean,
+                            deviation,
+                            window.windowTotal));
+                }
+            }
+        }
+        spikes.sort(Comparator.comparingDouble(ErrorSpike::deviation).reversed());
+        return spikes;
+    }
+
+    /**
+     * Per-pair sliding window. The ring holds the counts of the last
+     * {@code windowBuckets} buckets; the head slot is the bucket still filling.
+     * Buckets are folded into the EWMA baseline when they close.
+     */
+    private final class RateWindow {
+        private final String errorCode;
+        private final String serviceName;
+        private final long[] counts;
+        private long headBucket;
+        private long windowTotal;
+        private long closedBuckets;
+        private double mean;
+        private double variance;
+
+        RateWindow(String errorCode, String serviceName, int size, long startBucket) {
+            this.errorCode = errorCode;
+            this.serviceName = serviceName;
+            this.counts = new long[size];
+            this.headBucket = startBucket;
+        }
+
+        void add(long bucket) {
+            if (bucket < headBucket) {
+                return; // Late event: its bucket is already part of the baseline
+            }
+            if (bucket > headBucket) {
+                advanceTo(bucket);
+            }
+            counts[slot(bucket)]++;
+            windowTotal++;
+        }
+
+        private void advanceTo(long bucket) {
+            fold(counts[slot(headBucket)]);
+            // Empty buckets in between still count towards the baseline
+            foldEmpty(bucket - headBucket - 1);
+            // Each slot is cleared at most once per elapsed bucket
+            long cleared = Math.min(bucket - headBucket, counts.length);
+            for (long i = 1; i <= cleared; i++) {
+                int slot = slot(headBucket + i);
+                windowTotal -= counts[slot];
+                counts[slot] = 0;
+            }
+            headBucket = bucket;
+        }
+
+        /**
+         * Folds {@code buckets} zero counts at once, after at least one real
+         * bucket has been folded. Each zero scales the mean by
+         * (1 - alpha) and the variance recurrence sums to a geometric series, so
+         * after k zeros: mean' = d * mean and
+         * variance' = d * (variance + mean^2 * (1 - d)) with d = (1 - alpha)^k.
+         */
+        private void foldEmpty(long buckets) {
+            if (buckets <= 0) {
+                return;
+            }
+            double decay = Math.pow(1 - alpha, buckets);
+            variance = decay * (variance + mean * mean * (1 - decay));
+            mean *= decay;
+            closedBuckets += buckets;
+        }
+
+        private void fold(long count) {
+            if (closedBuckets == 0) {
+                mean = count;
+                variance = 0;
+            } else {
+                double diff = count - mean;
+                double increment = alpha * diff;
+                mean += increment;
+                variance = (1 - alpha) * (variance + diff * increment);
+            }
+            closedBuckets++;
+        }
+
+        long currentCount() {
+            return counts[slot(headBucket)];
+        }
+
+        double deviation() {
+            // Poisson floor so a perfectly flat baseline does not make every blip infinite
+            double stdDev = Math.max(Math.sqrt(variance), Math.sqrt(Math.max(mean, 1.0)));
+            return (currentCount() - mean) / stdDev;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) counts.length);
+        }
+    }
+}
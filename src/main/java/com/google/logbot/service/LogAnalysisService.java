@@ -2,6 +2,9 @@ package com.google.logbot.service;
 
 import com.google.logbot.model.LogEntry;
 import com.google.logbot.repository.LogRepository;
+import com.google.logbot.store.TrigramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -21,7 +24,11 @@ import java.util.regex.Pattern;
 @Service
 public class LogAnalysisService {
 
+    private static final Logger logger = LoggerFactory.getLogger(LogAnalysisService.class);
+
     private final LogRepository logRepository;
+    private final ErrorRateAnomalyDetector anomalyDetector;
+    private final TrigramIndex trigramIndex;
 
     // Pattern: Date Time Level [Service] [ErrorCode] Message
     // Example: 2023-10-27 10:15:30.123 ERROR [TransactionService] [TXN-1001]
@@ -37,53 +44,114 @@ public class LogAnalysisService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 
-    public LogAnalysisService(LogRepository logRepository) {
+    // Entries are saved in batches of this size
+    private static final int SAVE_BATCH_SIZE = 500;
+
+    public LogAnalysisService(LogRepository logRepository, ErrorRateAnomalyDetector anomalyDetector,
+            TrigramIndex trigramIndex) {
         this.logRepository = logRepository;
+        this.anomalyDetector = anomalyDetector;
+        this.trigramIndex = trigramIndex;
     }
 
     /**
-     * Parses a raw log file content and saves structured entries to the database.
-     * Chunks the content by timestamp to handle multi-line error stacks.
+     * Opens an incremental parser for a log file. Lines are fed one at a time
+     * as they are read, so files of any size can be processed without holding
+     * them in memory.
      *
-     * @param content  The full string content of the log file.
      * @param filename The name of the file (metadata).
+     * @return A parser that must be {@link LogFileParser#finish() finished} after
+     *         the last line.
      */
-    public void parseAndSaveLogFile(String content, String filename) {
-        List<String> logBlocks = chunkLogsByTimestamp(content);
-
-        for (String block : logBlocks) {
-            parseAndSaveSingleBlock(block, filename);
-        }
+    public LogFileParser openLogFile(String filename) {
+        return new LogFileParser(filename);
     }
 
-    private List<String> chunkLogsByTimestamp(String content) {
-        List<String> blocks = new ArrayList<>();
-        StringBuilder currentBlock = new StringBuilder();
+    /**
+     * Streaming timestamp chunker for a single log file.
+     * <p>
+     * Groups continuation lines (stack traces) with their header line and saves
+     * completed entries in batches.
+     * </p>
+     */
+    public class LogFileParser {
+
+        private final String filename;
+        private final StringBuilder currentBlock = new StringBuilder();
+        private final List<LogEntry> pending = new ArrayList<>(SAVE_BATCH_SIZE);
+        private long rows;
 
-        for (String line : content.lines().toList()) {
+        private LogFileParser(String filename) {
+            this.filename = filename;
+        }
+
+        /**
+         * Feeds the next line of the file.
+         *
+         * @param line The line, without terminator.
+         */
+        public void acceptLine(String line) {
             Matcher matcher = LOG_START_PATTERN.matcher(line);
             if (matcher.find()) {
                 // New log entry detected
                 if (currentBlock.length() > 0) {
-                    blocks.add(currentBlock.toString());
-                    currentBlock.setLength(0); // Reset
+                    completeBlock();
                 }
             }
+            // Lines past the fullLog column length are dropped so a runaway block
+            // (e.g. a file with no timestamps) cannot grow without bound
+            int remaining = LogEntry.FULL_LOG_LENGTH - currentBlock.length();
+            if (remaining <= 0) {
+                return;
+            }
             if (currentBlock.length() > 0) {
                 currentBlock.append("\n");
+                remaining--;
             }
-            currentBlock.append(line);
+            currentBlock.append(line, 0, Math.min(line.length(), remaining));
         }
-        // Add last block
-        if (currentBlock.length() > 0) {
-            blocks.add(currentBlock.toString());
+
+        /**
+         * Completes the last block and saves everything still pending.
+         *
+         * @return Number of entries saved from this file.
+         */
+        public long finish() {
+            // Add last block
+            if (currentBlock.length() > 0) {
+                completeBlock();
+            }
+            flush();
+            return rows;
+        }
+
+        private void completeBlock() {
+            LogEntry entry = parseSingleBlock(currentBlock.toString(), filename);
+            currentBlock.setLength(0); // Reset
+            if (entry != null) {
+                pending.add(entry);
+                if (pending.size() >= SAVE_BATCH_SIZE) {
+                    flush();
+                }
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<LogEntry> saved = LogEntryBatchSaver.save(logRepository, pending, filename);
+            saved.forEach(anomalyDetector::record);
+            trigramIndex.addAll(saved);
+            rows += saved.size();
+            pending.clear();
         }
-        return blocks;
     }
 
-    private void parseAndSaveSingleBlock(String logBlock, String filename) {
+    private LogEntry parseSingleBlock(String logBlock, String filename) {
         // Use the first line for header parsing
-        String firstLine = logBlock.split("\n")[0];
+        int firstLineEnd = logBlock.indexOf('\n');
+        String firstLine = firstLineEnd < 0 ? logBlock : logBlock.substring(0, firstLineEnd);
         Matcher matcher = LOG_HEADER_PATTERN.matcher(firstLine);
 
         if (matcher.find()) {
@@ -98,15 +166,15 @@ public class LogAnalysisService {
                 // Determine Log Type
                 String logType = determineLogType(logBlock, errorCode);
 
-                LogEntry entry = new LogEntry(timestamp, level, service, errorCode, null, logBlock, logType, filename);
                 // Message is the rest of the block (simplification: we might want to strip
                 // header)
-                logRepository.save(entry);
+                return new LogEntry(timestamp, level, service, errorCode, null, logBlock, logType, filename);
 
             } catch (Exception e) {
-                System.err.println("Failed to parse log block: " + firstLine + " -> " + e.getMessage());
+                logger.warn("Failed to parse log block: {} -> {}", firstLine, e.getMessage());
             }
         }
+        return null;
     }
 
     private String determineLogType(String logBlock, String errorCode) {
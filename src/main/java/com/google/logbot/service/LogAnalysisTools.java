@@ -1,10 +1,18 @@
 package com.google.logbot.service;
 
+import com.google.logbot.model.ErrorSpike;
+import com.google.logbot.model.GrepMatch;
+import com.google.logbot.model.GrepResult;
 import com.google.logbot.repository.LogRepository;
+import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 /**
@@ -19,25 +27,28 @@ import java.util.stream.Collectors;
 public class LogAnalysisTools {
 
     private final LogRepository logRepository;
+    private final ErrorRateAnomalyDetector anomalyDetector;
+    private final LogPartitionService partitionService;
+    private final LogGrepService grepService;
 
-    public LogAnalysisTools(LogRepository logRepository) {
+    // Matches listed by the grep tool; more would only be truncated in chat memory
+    private static final int GREP_TOOL_LIMIT = 20;
+
+    public LogAnalysisTools(LogRepository logRepository, ErrorRateAnomalyDetector anomalyDetector,
+            LogPartitionService partitionService, LogGrepService grepService) {
         this.logRepository = logRepository;
+        this.anomalyDetector = anomalyDetector;
+        this.partitionService = partitionService;
+        this.grepService = grepService;
     }
 
     @Tool("Returns a summary of errors grouped by error code with counts")
     public String getErrorSummary() {
-        List<Object[]> results = logRepository.countErrorsByCode();
-        if (results.isEmpty()) {
+        Map<String, Long> counts = partitionService.countErrorsByCode(null, null);
+        if (counts.isEmpty()) {
             return "No errors found in the logs.";
         }
-
-        StringBuilder sb = new StringBuilder("Error Summary:\n");
-        for (Object[] row : results) {
-            String errorCode = (String) row[0];
-            Long count = (Long) row[1];
-            sb.append(String.format("- %s: %d occurrences\n", errorCode, count));
-        }
-        return sb.toString();
+        return summary("Error Summary:\n", counts);
     }
 
     @Tool("Returns detailed log messages for a specific error code")
@@ -54,18 +65,32 @@ public class LogAnalysisTools {
 
     @Tool("Returns a summary of errors for a specific file")
     public String getErrorSummaryForFile(String filename) {
-        List<Object[]> results = logRepository.countErrorsByCodeAndFile(filename);
-        if (results.isEmpty()) {
+        Map<String, Long> counts = partitionService.countErrorsByCodeAndFile(filename, null, null);
+        if (counts.isEmpty()) {
             return "No errors found in file: " + filename;
         }
+        return summary("Error Summary for " + filename + ":\n", counts);
+    }
 
-        StringBuilder sb = new StringBuilder("Error Summary for " + filename + ":\n");
-        for (Object[] row : results) {
-            String errorCode = (String) row[0];
-            Long count = (Long) row[1];
-            sb.append(String.format("- %s: %d occurrences\n", errorCode, count));
+    @Tool("Returns a summary of errors grouped by error code for an inclusive date range given as yyyy-MM-dd")
+    public String getErrorSummaryForDateRange(String fromDate, String toDate) {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(fromDate);
+            to = LocalDate.parse(toDate);
+        } catch (DateTimeParseException e) {
+            return "Invalid date '" + e.getParsedString() + "': dates must be given as yyyy-MM-dd, e.g. 2024-01-05.";
         }
-        return sb.toString();
+        if (from.isAfter(to)) {
+            return "Invalid date range: " + fromDate + " is after " + toDate + ".";
+        }
+
+        Map<String, Long> counts = partitionService.countErrorsByCode(from, to);
+        if (counts.isEmpty()) {
+            return "No errors found between " + fromDate + " and " + toDate + ".";
+        }
+        return summary("Error Summary for " + fromDate + " to " + toDate + ":\n", counts);
     }
 
     @Tool("Lists all log files that have been ingested")
@@ -76,4 +101,47 @@ public class LogAnalysisTools {
         }
         return "Ingested Files:\n" + String.join("\n", files);
     }
+
+    @Tool("Returns error codes whose current error rate is spiking above their recent baseline")
+    public String getErrorSpikes() {
+        List<ErrorSpike> spikes = anomalyDetector.getSpikes();
+        if (spikes.isEmpty()) {
+            return "No error spikes detected.";
+        }
+
+        StringBuilder sb = new StringBuilder("Error Spikes:\n");
+        for (ErrorSpike spike : spikes) {
+            sb.append(String.format("- %s [%s] at %s: %d errors vs baseline %.1f (%.1f sigma)\n",
+                    spike.errorCode(), spike.serviceName(), spike.bucketStart(), spike.currentCount(),
+                    spike.baseline(), spike.deviation()));
+        }
+        return sb.toString();
+    }
+
+    @Tool("Finds raw log entries containing exact text, e.g. an error code together with a host name")
+    public String grepLogs(
+            @P("Java regular expressions that must all match the same log entry") List<String> patterns) {
+        GrepResult result;
+        try {
+            result = grepService.grep(patterns, false, GREP_TOOL_LIMIT);
+        } catch (PatternSyntaxException e) {
+            return "Invalid pattern: " + e.getDescription();
+        }
+        if (result.matches().isEmpty()) {
+            return "No log entries match " + String.join(" and ", patterns) + ".";
+        }
+
+        StringBuilder sb = new StringBuilder(String.format("Grep Results (%d%s):\n", result.matches().size(),
+                result.truncated() ? "+, showing the first " + GREP_TOOL_LIMIT : ""));
+        for (GrepMatch match : result.matches()) {
+            sb.append(String.format("- [%s] %s: %s\n", match.timestamp(), match.sourceFile(), match.line()));
+        }
+        return sb.toString();
+    }
+
+    private static String summary(String title, Map<String, Long> counts) {
+        StringBuilder sb = new StringBuilder(title);
+        counts.forEach((errorCode, count) -> sb.append(String.format("- %s: %d occurrences\n", errorCode, count)));
+        return sb.toString();
+    }
 }
@@ -1,6 +1,10 @@
 package com.google.logbot.service;
 
+import com.google.logbot.store.SessionChatMemoryStore;
+import com.google.logbot.store.SessionChatMemoryStore.SessionMemoryId;
+import dev.langchain4j.service.MemoryId;
 import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.UserMessage;
 
 /**
  * AI Service Interface supported by LangChain4j.
@@ -11,22 +15,31 @@ import dev.langchain4j.service.SystemMessage;
  */
 public interface LogAssistant {
 
-    /**
-     * Sends a user message to the AI and receives a response.
-     * The AI may call tools or retrieve RAG content before answering.
-     *
-     * @param userMessage Natural language query from the user.
-     * @return The AI's textual response.
-     */
-    @SystemMessage("""
+    /** Instructions shared with {@link OneShotLogAssistant}. */
+    String SYSTEM_MESSAGE = """
                 You are a helpful Log Analysis Assistant.
                 You have access to tools that can summarize errors from a database and retrieve detailed logs.
 
                 If the user asks for a summary or count of errors, USE THE `getErrorSummary` tool.
+                If the question is limited to specific dates, USE THE `getErrorSummaryForDateRange` tool.
                 If the user asks for details about a specific error code, USE THE `getErrorDetails` tool.
+                If the user asks whether errors are spiking or unusual right now, USE THE `getErrorSpikes` tool.
+                If the user asks for every log entry containing specific text (codes, host names, ids), USE THE `grepLogs` tool.
                 For general questions, use your knowledge base (RAG) which contains the log entries.
 
                 Always answer in a polite and professional manner.
-            """)
-    String chat(String userMessage);
+            """;
+
+    /**
+     * Sends a user message to the AI and receives a response.
+     * The AI may call tools or retrieve RAG content before answering.
+     * Each session has its own conversation memory.
+     *
+     * @param memoryId    The session's memory id, from
+     *                    {@link SessionChatMemoryStore#memoryIdFor(String)}.
+     * @param userMessage Natural language query from the user.
+     * @return The AI's textual response.
+     */
+    @SystemMessage(SYSTEM_MESSAGE)
+    String chat(@MemoryId SessionMemoryId memoryId, @UserMessage String userMessage);
 }
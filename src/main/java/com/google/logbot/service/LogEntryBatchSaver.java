@@ -0,0 +1,60 @@
+package com.google.logbot.service;
+
+import com.google.logbot.model.LogEntry;
+import com.google.logbot.repository.LogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saves batches of parsed entries for the ingestion parsers.
+ * <p>
+ * A batch is saved in one call. If that fails, for example because a single
+ * entry violates a column constraint, the batch is retried entry by entry so
+ * that one bad entry only loses itself; entries that still fail are logged
+ * and skipped.
+ * </p>
+ */
+final class LogEntryBatchSaver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogEntryBatchSaver.class);
+
+    private LogEntryBatchSaver() {
+    }
+
+    /**
+     * Saves a batch of entries.
+     *
+     * @param logRepository The repository to save to.
+     * @param batch         The entries to save.
+     * @param filename      The source file, for log messages.
+     * @return The entries that were saved, with their ids assigned.
+     */
+    static List<LogEntry> save(LogRepository logRepository, List<LogEntry> batch, String filename) {
+        try {
+            return logRepository.saveAll(batch);
+        } catch (Exception e) {
+            logger.warn("Failed to save {} entries from {} as a batch, saving them one by one", batch.size(),
+                    filename, e);
+        }
+
+        List<LogEntry> saved = new ArrayList<>(batch.size());
+        for (LogEntry entry : batch) {
+            try {
+                // The rolled back batch may have assigned ids; insert a fresh copy
+                saved.add(logRepository.save(copyOf(entry)));
+            } catch (Exception e) {
+                logger.warn("Failed to save log entry from {} at {}: {}", filename, entry.getTimestamp(),
+                        e.getMessage());
+            }
+        }
+        return saved;
+    }
+
+    private static LogEntry copyOf(LogEntry entry) {
+        return new LogEntry(entry.getTimestamp(), entry.getLevel(), entry.getServiceName(), entry.getErrorCode(),
+                entry.getMessage(), entry.getFullLog(), entry.getLogType(), entry.getSourceFile());
+    }
+}
@@ -0,0 +1,190 @@
+package com.google.logbot.service;
+
+import com.google.logbot.model.LogEntry;
+import com.google.logbot.repository.LogRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams filtered log entries out as NDJSON or CSV.
+ * <p>
+ * Rows are read from a forward-only JDBC cursor and written one by one, and
+ * each entity is detached right after it is written, so memory use stays
+ * constant regardless of the number of rows. A failed write (e.g. the client
+ * disconnected) aborts the export and closes the cursor.
+ * </p>
+ */
+@Service
+public class LogExportService {
+
+    /** Supported output formats. */
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * Filters for an export; null fields are ignored.
+     *
+     * @param errorCode  Exact error code.
+     * @param sourceFile Exact source file.
+     * @param level      Exact level (e.g. ERROR).
+     * @param logType    Exact log type.
+     * @param from       Earliest timestamp (inclusive).
+     * @param to         Latest timestamp (exclusive).
+     */
+    public record ExportFilter(String errorCode, String sourceFile, String level, String logType,
+            LocalDateTime from, LocalDateTime to) {
+    }
+
+    private static final String CSV_HEADER = "id,timestamp,level,serviceName,errorCode,logType,sourceFile,message,fullLog";
+
+    // Rows between explicit flushes, so a disconnected client is noticed early
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final LogRepository logRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public LogExportService(LogRepository logRepository, EntityManager entityManager,
+            PlatformTransactionManager transactionManager) {
+        this.logRepository = logRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Writes all matching entries to the output stream.
+     *
+     * @param filter The filters to apply.
+     * @param format The output format.
+     * @param output The destination; flushed but not closed.
+     * @return Number of rows written.
+     * @throws IOException if writing fails, e.g. because the client went away.
+     */
+    public long export(ExportFilter filter, Format format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 1 << 16);
+        try {
+            Long rows = readOnlyTransaction.execute(status -> {
+                try (Stream<LogEntry> entries = logRepository.streamFiltered(filter.errorCode(), filter.sourceFile(),
+                        filter.level(), filter.logType(), filter.from(), filter.to())) {
+                    return writeAll(entries.iterator(), format, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return rows != null ? rows : 0;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeAll(Iterator<LogEntry> entries, Format format, Writer writer) throws IOException {
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        while (entries.hasNext()) {
+            LogEntry entry = entries.next();
+            if (format == Format.CSV) {
+                writeCsv(entry, writer);
+            } else {
+                writeJson(entry, writer);
+            }
+            entityManager.detach(entry);
+
+            if (++rows % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeJson(LogEntry entry, Writer writer) throws IOException {
+        writer.write("{\"id\":");
+        writer.write(String.valueOf(entry.getId()));
+        writeJsonField(writer, "timestamp", entry.getTimestamp() != null ? entry.getTimestamp().toString() : null);
+        writeJsonField(writer, "level", entry.getLevel());
+        writeJsonField(writer, "serviceName", entry.getServiceName());
+        writeJsonField(writer, "errorCode", entry.getErrorCode());
+        writeJsonField(writer, "logType", entry.getLogType());
+        writeJsonField(writer, "sourceFile", entry.getSourceFile());
+        writeJsonField(writer, "message", entry.getMessage());
+        writeJsonField(writer, "fullLog", entry.getFullLog());
+        writer.write("}\n");
+    }
+
+    private static void writeJsonField(Writer writer, String name, String value) throws IOException {
+        writer.write(",\"");
+        writer.write(name);
+        writer.write("\":");
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static void writeCsv(LogEntry entry, Writer writer) throws IOException {
+        writer.write(String.valueOf(entry.getId()));
+        writeCsvField(writer, entry.getTimestamp() != null ? entry.getTimestamp().toString() : null);
+        writeCsvField(writer, entry.getLevel());
+        writeCsvField(writer, entry.getServiceName());
+        writeCsvField(writer, entry.getErrorCode());
+        writeCsvField(writer, entry.getLogType());
+        writeCsvField(writer, entry.getSourceFile());
+        writeCsvField(writer, entry.getMessage());
+        writeCsvField(writer, entry.getFullLog());
+        writer.write('\n');
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        // RFC 4180: quote fields containing separators, quotes or line breaks
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.google.logbot.service;
+
+import com.google.logbot.model.GrepMatch;
+import com.google.logbot.model.GrepResult;
+import com.google.logbot.model.LogEntry;
+import com.google.logbot.repository.LogRepository;
+import com.google.logbot.store.TrigramIndex;
+import com.google.logbot.store.TrigramQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Literal and regex grep over the raw text of all ingested log entries.
+ * <p>
+ * The literals each pattern requires are looked up in the {@link TrigramIndex}
+ * to narrow the search to candidate entries. Candidates are then loaded in
+ * chunks and checked against the real patterns in parallel, in ingestion
+ * order, until the result limit is reached.
+ * </p>
+ */
+@Service
+public class LogGrepService {
+
+    // Candidate ids loaded and verified per task
+    private static final int VERIFY_CHUNK_SIZE = 500;
+
+    private final LogRepository logRepository;
+    private final TrigramIndex trigramIndex;
+    private final int parallelism;
+    private final int maxResults;
+    private final ExecutorService verifyExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LogGrepService(LogRepository logRepository, TrigramIndex trigramIndex,
+            @Value("${grep.parallelism:8}") int parallelism,
+            @Value("${grep.max-results:1000}") int maxResults) {
+        this.logRepository = logRepository;
+        this.trigramIndex = trigramIndex;
+        this.parallelism = Math.max(parallelism, 1);
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Finds the entries whose raw text matches all patterns.
+     *
+     * @param patterns Patterns that must all match.
+     * @param literal  Whether the patterns are plain text rather than regexes.
+     * @param limit    Maximum number of matches (capped by grep.max-results).
+     * @return The matches and search statistics.
+     * @throws java.util.regex.PatternSyntaxException if a regex is invalid.
+     */
+    public GrepResult grep(List<String> patterns, boolean literal, int limit) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("At least one pattern is required");
+        }
+        int cap = Math.max(1, Math.min(limit, maxResults));
+
+        List<Pattern> compiled = new ArrayList<>(patterns.size());
+        List<TrigramQuery> required = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            compiled.add(Pattern.compile(literal ? Pattern.quote(pattern) : pattern));
+            required.add(literal ? new TrigramQuery.Literal(pattern) : TrigramQuery.forRegex(pattern));
+        }
+        long[] candidates = trigramIndex.candidates(new TrigramQuery.AllOf(required));
+
+        List<GrepMatch> matches = new ArrayList<>();
+        int position = 0;
+        while (position < candidates.length && matches.size() < cap) {
+            // Verify a wave of chunks in parallel, then collect them in order
+            List<Future<List<GrepMatch>>> wave = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism && position < candidates.length; i++) {
+                int end = Math.min(position + VERIFY_CHUNK_SIZE, candidates.length);
+                List<Long> ids = new ArrayList<>(end - position);
+                for (int j = position; j < end; j++) {
+                    ids.add(candidates[j]);
+                }
+                wave.add(verifyExecutor.submit(() -> verify(ids, compiled)));
+                position = end;
+            }
+            for (Future<List<GrepMatch>> future : wave) {
+                matches.addAll(await(future));
+            }
+        }
+
+        boolean truncated = matches.size() > cap || (matches.size() == cap && position < candidates.length);
+        return new GrepResult(matches.subList(0, Math.min(cap, matches.size())), candidates.length,
+                trigramIndex.size(), truncated);
+    }
+
+    private List<GrepMatch> verify(List<Long> ids, List<Pattern> patterns) {
+        List<LogEntry> entries = new ArrayList<>(logRepository.findAllById(ids));
+        entries.sort(Comparator.comparing(LogEntry::getId));
+
+        List<GrepMatch> matches = new ArrayList<>();
+        for (LogEntry entry : entries) {
+            String text = entry.getFullLog() != null ? entry.getFullLog() : entry.getMessage();
+            if (text == null || !patterns.stream().allMatch(pattern -> pattern.matcher(text).find())) {
+                continue;
+            }
+            matches.add(new GrepMatch(entry.getId(), entry.getTimestamp(), entry.getSourceFile(),
+                    entry.getErrorCode(), matchingLine(text, patterns.get(0)), text));
+        }
+        return matches;
+    }
+
+    private static String matchingLine(String text, Pattern pattern) {
+        Matcher matcher = pattern.matcher(text);
+        if (!matcher.find()) {
+            return text;
+        }
+        int start = text.lastIndexOf('\n', matcher.start() - 1) + 1;
+        int end = text.indexOf('\n', matcher.start());
+        return text.substring(start, end < 0 ? text.length() : end);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
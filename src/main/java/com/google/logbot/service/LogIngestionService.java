@@ -1,10 +1,12 @@
 package com.google.logbot.service;
 
+import com.google.logbot.model.IngestionResult;
+import com.google.logbot.store.PartitionedEmbeddingStore;
 import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.store.embedding.EmbeddingStore;
-import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
 import dev.langchain4j.data.document.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,16 +14,30 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Orchestrator service for log ingestion.
  * <p>
- * Scans for files, routes them to appropriate parsers (Log vs Report),
- * and handles both Structured (DB) and Semantic (Vector) ingestion.
+ * Scans for files or accepts streams, routes them to appropriate parsers
+ * (Log vs Report), and handles both Structured (DB) and Semantic (Vector)
+ * ingestion.
  * </p>
  */
 @Service
@@ -29,16 +45,25 @@ public class LogIngestionService {
 
     private static final Logger logger = LoggerFactory.getLogger(LogIngestionService.class);
 
-    private final EmbeddingStoreIngestor ingestor;
+    // Day of a log header line, used as the vector partition key
+    private static final Pattern LINE_DATE_PATTERN = Pattern.compile("^(\\d{4}-\\d{2}-\\d{2})\\s\\d{2}:");
+
+    // Segments are embedded in batches of this size
+    private static final int EMBEDDING_BATCH_SIZE = 256;
+
+    // Embedding batches running while the next lines are read
+    private static final int MAX_BATCHES_IN_FLIGHT = 4;
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingStore<TextSegment> embeddingStore;
     private final LogAnalysisService analysisService;
     private final TransactionReportParser reportParser;
+    private final ExecutorService embeddingExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public LogIngestionService(EmbeddingModel embeddingModel, EmbeddingStore<TextSegment> embeddingStore,
             LogAnalysisService analysisService, TransactionReportParser reportParser) {
-        this.ingestor = EmbeddingStoreIngestor.builder()
-                .embeddingModel(embeddingModel)
-                .embeddingStore(embeddingStore)
-                .build();
+        this.embeddingModel = embeddingModel;
+        this.embeddingStore = embeddingStore;
         this.analysisService = analysisService;
         this.reportParser = reportParser;
     }
@@ -47,8 +72,10 @@ public class LogIngestionService {
      * Main entry point for scanning and ingesting logs from the classpath.
      * Looks for files in 'simulated_logs' directory and the root
      * 'transaction_log.txt'.
+     *
+     * @return Per-file row and embedding counts.
      */
-    public void ingestLogs() {
+    public List<IngestionResult> ingestLogs() {
         try {
             PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
             // Load both .log and .txt files
@@ -56,8 +83,9 @@ public class LogIngestionService {
             // Also check root if transaction_log.txt is there
             Resource[] rootResources = resolver.getResources("classpath:transaction_log.txt");
 
-            ingestResources(resources);
-            ingestResources(rootResources);
+            List<IngestionResult> results = new ArrayList<>(ingestResources(resources));
+            results.addAll(ingestResources(rootResources));
+            return results;
 
         } catch (IOException e) {
             logger.error("Error reading log files", e);
@@ -65,55 +93,233 @@ public class LogIngestionService {
         }
     }
 
-    private void ingestResources(Resource[] resources) throws IOException {
+    /**
+     * Ingests all files matching a Spring resource location pattern, e.g.
+     * {@code file:/data/logs/*.*}. Used to load data from outside the classpath.
+     *
+     * @param locationPattern The resource pattern to resolve.
+     * @return Per-file row and embedding counts.
+     */
+    public List<IngestionResult> ingestLogs(String locationPattern) {
+        try {
+            return ingestResources(new PathMatchingResourcePatternResolver().getResources(locationPattern));
+        } catch (IOException e) {
+            logger.error("Error reading log files from {}", locationPattern, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Checks whether a file type can be ingested.
+     *
+     * @param filename The file name.
+     * @return True for log files (.log) and transaction reports (.txt).
+     */
+    public boolean supports(String filename) {
+        return filename != null && (filename.endsWith(".log") || filename.endsWith(".txt"));
+    }
+
+    /**
+     * Ingests a single file from a stream, e.g. an upload still in transfer.
+     * Lines are parsed and saved as they arrive and embeddings are computed in
+     * bounded batches in the background, so neither the file nor its
+     * embeddings are ever held in memory as a whole.
+     *
+     * @param input    The file content; not closed by this method.
+     * @param filename The file name, used to pick the parser and as metadata.
+     * @return Row and embedding counts for the file.
+     * @throws IOException if reading the stream fails.
+     */
+    public IngestionResult ingestStream(InputStream input, String filename) throws IOException {
+        if (!supports(filename)) {
+            throw new IllegalArgumentException("Unsupported file type: " + filename);
+        }
+        logger.info("Ingesting file: {}", filename);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        EmbeddingPipeline pipeline = new EmbeddingPipeline();
+        long rows;
+
+        try {
+            if (filename.endsWith(".txt")) {
+                // Handle Transaction Report
+                TransactionReportParser.ReportParser parser = reportParser.openReport(filename);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Document document = parser.acceptLine(line);
+                    if (document != null) {
+                        pipeline.add(document);
+                    }
+                }
+                rows = parser.finish();
+            } else {
+                // 1. Structured Ingestion (H2 Database) and 2. Vector Ingestion (Embedding
+                // Store) for Logs, in a single pass
+                LogAnalysisService.LogFileParser parser = analysisService.openLogFile(filename);
+                String partition = LocalDate.now().toString();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    parser.acceptLine(line);
+                    if (line.trim().isEmpty())
+                        continue;
+
+                    // Continuation lines (stack traces) stay in the partition of their header
+                    Matcher dateMatcher = LINE_DATE_PATTERN.matcher(line);
+                    if (dateMatcher.find())
+                        partition = dateMatcher.group(1);
+
+                    pipeline.add(toDocument(line, filename, partition));
+                }
+                rows = parser.finish();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Let running batches settle, but report the original failure
+            try {
+                pipeline.awaitInFlight();
+            } catch (RuntimeException batchFailure) {
+                e.addSuppressed(batchFailure);
+            }
+            throw e;
+        }
+        pipeline.finish();
+
+        long embedded = pipeline.embedded.get();
+        logger.info("Ingested {} rows and {} embeddings from {}", rows, embedded, filename);
+        return new IngestionResult(filename, rows, embedded);
+    }
+
+    private List<IngestionResult> ingestResources(Resource[] resources) throws IOException {
+        List<IngestionResult> results = new ArrayList<>();
         if (resources == null)
-            return;
+            return results;
 
         for (Resource resource : resources) {
-            if (!resource.exists())
+            if (!resource.exists() || !supports(resource.getFilename()))
                 continue;
 
-            logger.info("Ingesting file: {}", resource.getFilename());
-            String content = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            try (InputStream input = resource.getInputStream()) {
+                results.add(ingestStream(input, resource.getFilename()));
+            }
+        }
+        return results;
+    }
+
+    private Document toDocument(String line, String filename, String partition) {
+        Metadata metadata = Metadata.from("source_file", filename);
+        metadata.put(PartitionedEmbeddingStore.PARTITION_KEY, partition);
+        // Basic heuristic for log_type in vector metadata
+        if (line.contains("PAY-PRC-"))
+            metadata.put("log_type", "Payment Post");
+        else if (line.contains("CUST-VAL-ERR"))
+            metadata.put("log_type", "Address Update");
+        else if (line.contains("INT-CALC-FAIL"))
+            metadata.put("log_type", "Late Fee Calc");
+        else if (line.contains("SFTP-DROP-01"))
+            metadata.put("log_type", "File Transfer");
+        else
+            metadata.put("log_type", "General");
 
-            if (resource.getFilename().endsWith(".txt")) {
-                // Handle Transaction Report
-                List<Document> documents = reportParser.parse(content, resource.getFilename());
-                if (!documents.isEmpty()) {
-                    ingestor.ingest(documents);
-                    logger.info("Ingested {} report entries from {}", documents.size(), resource.getFilename());
+        return Document.from(line, metadata);
+    }
+
+    /**
+     * Batches documents and embeds them off the reading thread. At most
+     * {@link #MAX_BATCHES_IN_FLIGHT} batches run at once; further adds block,
+     * which in turn applies back-pressure to the upload. A failed batch is
+     * raised by the next add or by {@link #finish()}.
+     */
+    private final class EmbeddingPipeline {
+
+        private final Semaphore permits = new Semaphore(MAX_BATCHES_IN_FLIGHT);
+        private final List<Future<?>> inFlight = new ArrayList<>();
+        private final AtomicLong embedded = new AtomicLong();
+        private List<Document> batch = new ArrayList<>(EMBEDDING_BATCH_SIZE);
+
+        void add(Document document) {
+            batch.add(document);
+            if (batch.size() >= EMBEDDING_BATCH_SIZE) {
+                submit();
+            }
+        }
+
+        /**
+         * Submits the last partial batch and waits for all batches.
+         */
+        void finish() {
+            if (!batch.isEmpty()) {
+                submit();
+            }
+            awaitInFlight();
+        }
+
+        /**
+         * Waits for the submitted batches without submitting the pending one.
+         *
+         * @throws RuntimeException if any batch failed.
+         */
+        void awaitInFlight() {
+            RuntimeException failure = null;
+            for (Future<?> future : inFlight) {
+                try {
+                    await(future);
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            inFlight.clear();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void submit() {
+            List<Document> documents = batch;
+            batch = new ArrayList<>(EMBEDDING_BATCH_SIZE);
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+
+            // Surface failures of completed batches before queueing more work
+            Iterator<Future<?>> it = inFlight.iterator();
+            while (it.hasNext()) {
+                Future<?> future = it.next();
+                if (future.isDone()) {
+                    it.remove();
+                    try {
+                        await(future);
+                    } catch (RuntimeException e) {
+                        permits.release();
+                        throw e;
+                    }
                 }
-            } else if (resource.getFilename().endsWith(".log")) {
-                // 1. Structured Ingestion (H2 Database)
+            }
+
+            inFlight.add(embeddingExecutor.submit(() -> {
                 try {
-                    analysisService.parseAndSaveLogFile(content, resource.getFilename());
-                } catch (Exception e) {
-                    logger.error("Error parsing structured logs for {}", resource.getFilename(), e);
+                    // One segment per document; count what the store actually stored
+                    List<TextSegment> segments = documents.stream().map(Document::toTextSegment).toList();
+                    List<Embedding> embeddings = embeddingModel.embedAll(segments).content();
+                    embedded.addAndGet(embeddingStore.addAll(embeddings, segments).size());
+                } finally {
+                    permits.release();
                 }
+            }));
+        }
 
-                // 2. Vector Ingestion (Embedding Store) for Logs
-                List<Document> documents = content.lines()
-                        .filter(line -> !line.trim().isEmpty())
-                        .map(line -> {
-                            Metadata metadata = Metadata.from("source_file", resource.getFilename());
-                            // Basic heuristic for log_type in vector metadata
-                            if (line.contains("PAY-PRC-"))
-                                metadata.put("log_type", "Payment Post");
-                            else if (line.contains("CUST-VAL-ERR"))
-                                metadata.put("log_type", "Address Update");
-                            else if (line.contains("INT-CALC-FAIL"))
-                                metadata.put("log_type", "Late Fee Calc");
-                            else if (line.contains("SFTP-DROP-01"))
-                                metadata.put("log_type", "File Transfer");
-                            else
-                                metadata.put("log_type", "General");
-
-                            return Document.from(line, metadata);
-                        })
-                        .collect(Collectors.toList());
-
-                ingestor.ingest(documents);
-                logger.info("Ingested {} entries from {}", documents.size(), resource.getFilename());
+        private void await(Future<?> future) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Embedding batch failed", e.getCause());
             }
         }
     }
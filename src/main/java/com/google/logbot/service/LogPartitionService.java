@@ -0,0 +1,148 @@
+package com.google.logbot.service;
+
+import com.google.logbot.repository.LogRepository;
+import com.google.logbot.store.PartitionedEmbeddingStore;
+import com.google.logbot.store.TrigramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Partition-aware access to the structured and semantic stores.
+ * <p>
+ * Log entries and embeddings are partitioned by day. This service fans
+ * aggregate queries out across the relevant day partitions in parallel and
+ * merges the results, and enforces retention by dropping whole partitions
+ * from the database, the vector store and the grep index.
+ * </p>
+ */
+@Service
+public class LogPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogPartitionService.class);
+
+    private final LogRepository logRepository;
+    private final PartitionedEmbeddingStore embeddingStore;
+    private final TrigramIndex trigramIndex;
+    private final int retentionDays;
+    private final ExecutorService queryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LogPartitionService(LogRepository logRepository, PartitionedEmbeddingStore embeddingStore,
+            TrigramIndex trigramIndex, @Value("${partition.retention-days:0}") int retentionDays) {
+        this.logRepository = logRepository;
+        this.embeddingStore = embeddingStore;
+        this.trigramIndex = trigramIndex;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Lists the day partitions holding structured entries within a range.
+     *
+     * @param from First day (inclusive), or null for unbounded.
+     * @param to   Last day (inclusive), or null for unbounded.
+     * @return Matching partition days, oldest first.
+     */
+    public List<LocalDate> partitionsBetween(LocalDate from, LocalDate to) {
+        return logRepository.findDistinctPartitionDays().stream()
+                .filter(day -> from == null || !day.isBefore(from))
+                .filter(day -> to == null || !day.isAfter(to))
+                .toList();
+    }
+
+    /**
+     * Aggregates errors by code across the partitions in a date range.
+     *
+     * @param from First day (inclusive), or null for unbounded.
+     * @param to   Last day (inclusive), or null for unbounded.
+     * @return Error code to count, highest count first.
+     */
+    public Map<String, Long> countErrorsByCode(LocalDate from, LocalDate to) {
+        return fanOut(partitionsBetween(from, to), logRepository::countErrorsByCodeInPartition);
+    }
+
+    /**
+     * Aggregates errors by code for a single file across the partitions in a date
+     * range.
+     *
+     * @param filename The source file to filter by.
+     * @param from     First day (inclusive), or null for unbounded.
+     * @param to       Last day (inclusive), or null for unbounded.
+     * @return Error code to count, highest count first.
+     */
+    public Map<String, Long> countErrorsByCodeAndFile(String filename, LocalDate from, LocalDate to) {
+        return fanOut(partitionsBetween(from, to),
+                day -> logRepository.countErrorsByCodeAndFileInPartition(filename, day));
+    }
+
+    /**
+     * Drops every partition older than the configured retention period.
+     * Disabled when {@code partition.retention-days} is 0.
+     */
+    @Scheduled(cron = "${partition.retention-cron:0 15 0 * * *}")
+    public void enforceRetention() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+
+        for (LocalDate day : partitionsBetween(null, cutoff.minusDays(1))) {
+            int rows = logRepository.deletePartition(day);
+            logger.info("Dropped log partition {} ({} rows)", day, rows);
+        }
+        for (LocalDate day : new ArrayList<>(embeddingStore.partitions().headSet(cutoff, false))) {
+            try {
+                embeddingStore.dropPartition(day);
+            } catch (Exception e) {
+                logger.error("Failed to drop vector partition {}", day, e);
+            }
+        }
+        for (LocalDate day : trigramIndex.partitions().headSet(cutoff, false)) {
+            try {
+                trigramIndex.dropPartition(day);
+            } catch (Exception e) {
+                logger.error("Failed to drop grep index partition {}", day, e);
+            }
+        }
+    }
+
+    private Map<String, Long> fanOut(List<LocalDate> days, Function<LocalDate, List<Object[]>> query) {
+        List<Future<List<Object[]>>> futures = new ArrayList<>(days.size());
+        for (LocalDate day : days) {
+            futures.add(queryExecutor.submit(() -> query.apply(day)));
+        }
+
+        Map<String, Long> counts = new HashMap<>();
+        for (Future<List<Object[]>> future : futures) {
+            try {
+                for (Object[] row : future.get()) {
+                    counts.merge((String) row[0], (Long) row[1], Long::sum);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEachOrdered(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+}
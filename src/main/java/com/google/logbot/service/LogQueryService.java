@@ -1,13 +1,14 @@
 package com.google.logbot.service;
 
+import com.google.logbot.store.PartitionedEmbeddingStore;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
-import dev.langchain4j.store.embedding.EmbeddingStore;
 import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
 import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,10 +22,10 @@ import java.util.stream.Collectors;
 @Service
 public class LogQueryService {
 
-    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final PartitionedEmbeddingStore embeddingStore;
     private final EmbeddingModel embeddingModel;
 
-    public LogQueryService(EmbeddingStore<TextSegment> embeddingStore, EmbeddingModel embeddingModel) {
+    public LogQueryService(PartitionedEmbeddingStore embeddingStore, EmbeddingModel embeddingModel) {
         this.embeddingStore = embeddingStore;
         this.embeddingModel = embeddingModel;
     }
@@ -36,11 +37,26 @@ public class LogQueryService {
      * @return List of matching text segments from the logs.
      */
     public List<String> search(String query) {
+        return search(query, null, null);
+    }
+
+    /**
+     * Searches for log segments semantically similar to the query, restricted to
+     * the day partitions within a date range. Partitions are searched in
+     * parallel and their top results merged.
+     *
+     * @param query The search text.
+     * @param from  First day (inclusive), or null for unbounded.
+     * @param to    Last day (inclusive), or null for unbounded.
+     * @return List of matching text segments from the logs.
+     */
+    public List<String> search(String query, LocalDate from, LocalDate to) {
         Embedding queryEmbedding = embeddingModel.embed(query).content();
 
         EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
                 .queryEmbedding(queryEmbedding)
                 .maxResults(5)
+                .filter(PartitionedEmbeddingStore.partitionRange(from, to))
                 .build();
 
         EmbeddingSearchResult<TextSegment> result = embeddingStore.search(request);
@@ -0,0 +1,23 @@
+package com.google.logbot.service;
+
+import dev.langchain4j.service.SystemMessage;
+import dev.langchain4j.service.UserMessage;
+
+/**
+ * Memoryless variant of {@link LogAssistant} for one-off questions.
+ * <p>
+ * Used when a request carries no session id, so no conversation is created
+ * or kept on the server.
+ * </p>
+ */
+public interface OneShotLogAssistant {
+
+    /**
+     * Answers a single question without conversation history.
+     *
+     * @param userMessage Natural language query from the user.
+     * @return The AI's textual response.
+     */
+    @SystemMessage(LogAssistant.SYSTEM_MESSAGE)
+    String answer(@UserMessage String userMessage);
+}
@@ -0,0 +1,63 @@
+package com.google.logbot.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Inclusive date range mentioned in a natural language question.
+ * <p>
+ * Recognises ISO dates (yyyy-MM-dd) and the words "today" and "yesterday".
+ * Used to restrict searches to the day partitions a question is about.
+ * </p>
+ *
+ * @param from First day (inclusive), or null if unbounded.
+ * @param to   Last day (inclusive), or null if unbounded.
+ */
+public record QueryDateRange(LocalDate from, LocalDate to) {
+
+    private static final Pattern ISO_DATE_PATTERN = Pattern.compile("\\b(\\d{4}-\\d{2}-\\d{2})\\b");
+    private static final Pattern TODAY_PATTERN = Pattern.compile("\\btoday\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern YESTERDAY_PATTERN = Pattern.compile("\\byesterday\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Extracts the date range from a question. Multiple dates span from the
+     * earliest to the latest mentioned.
+     *
+     * @param text The user's question.
+     * @return The range; both bounds are null if no date was found.
+     */
+    public static QueryDateRange parse(String text) {
+        List<LocalDate> days = new ArrayList<>();
+        Matcher matcher = ISO_DATE_PATTERN.matcher(text);
+        while (matcher.find()) {
+            try {
+                days.add(LocalDate.parse(matcher.group(1)));
+            } catch (DateTimeParseException e) {
+                // Not a real date, ignore
+            }
+        }
+        if (TODAY_PATTERN.matcher(text).find()) {
+            days.add(LocalDate.now());
+        }
+        if (YESTERDAY_PATTERN.matcher(text).find()) {
+            days.add(LocalDate.now().minusDays(1));
+        }
+
+        if (days.isEmpty()) {
+            return new QueryDateRange(null, null);
+        }
+        days.sort(null);
+        return new QueryDateRange(days.get(0), days.get(days.size() - 1));
+    }
+
+    /**
+     * @return True if the question did not mention any date.
+     */
+    public boolean isUnbounded() {
+        return from == null && to == null;
+    }
+}
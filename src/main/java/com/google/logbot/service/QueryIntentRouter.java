@@ -0,0 +1,205 @@
+package com.google.logbot.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic fast path for common structured questions.
+ * <p>
+ * Classifies a question with keyword and pattern rules. Questions that match
+ * a structured intent (error summary, per-file summary, details for a code,
+ * file list, spikes) are answered by calling {@link LogAnalysisTools}
+ * directly, skipping the LLM round-trips and RAG retrieval entirely.
+ * Open-ended questions ("why", "explain", ...) are never routed and fall
+ * through to the {@link LogAssistant}, as are questions with qualifiers the
+ * chosen tool cannot apply (a date, file or error code the tool ignores, or
+ * more than one file or error code).
+ * </p>
+ */
+@Service
+public class QueryIntentRouter {
+
+    /** Intents answered without the LLM. */
+    public enum Intent {
+        ERROR_SUMMARY,
+        DATE_RANGE_SUMMARY,
+        FILE_ERROR_SUMMARY,
+        ERROR_DETAILS,
+        FILE_LIST,
+        ERROR_SPIKES
+    }
+
+    /**
+     * Answer produced by the fast path.
+     *
+     * @param intent The matched intent.
+     * @param answer The rendered answer.
+     */
+    public record RoutedAnswer(Intent intent, String answer) {
+    }
+
+    // Questions asking for reasoning need the LLM
+    private static final Pattern OPEN_ENDED_PATTERN = Pattern.compile(
+            "\\b(why|how come|explain|cause[sd]?|root cause|reason|what happened|suggest|fix|recommend|compare)\\b");
+
+    private static final Pattern FILENAME_PATTERN = Pattern.compile("\\b([\\w.-]+\\.(?:log|txt))\\b");
+
+    // Log codes (PAY-PRC-1002, SFTP-DROP-01) and report codes (000201S)
+    private static final Pattern ERROR_CODE_PATTERN = Pattern.compile("\\b([A-Z]{2,}(?:-[A-Z0-9]+)+|\\d{6}[A-Z])\\b");
+
+    private static final Pattern SUMMARY_PATTERN = Pattern
+            .compile("\\b(summar\\w*|count\\w*|how many|overview|breakdown|totals?|top errors?)\\b");
+    private static final Pattern ERRORS_PATTERN = Pattern.compile("\\b(errors?|failures?|issues?)\\b");
+    private static final Pattern DETAILS_PATTERN = Pattern
+            .compile("\\b(details?|show|list|logs? for|entries|occurrences|messages?|find|get)\\b");
+    private static final Pattern FILE_LIST_PATTERN = Pattern.compile(
+            "\\b(list|show|which|what)\\b.*\\bfiles?\\b|\\bfiles?\\b.*\\b(ingested|loaded|available)\\b");
+    private static final Pattern SPIKES_PATTERN = Pattern.compile("\\b(spik\\w*|anomal\\w*|surg\\w*|unusual|burst\\w*)\\b");
+
+    private static final Pattern ISO_DATE_PATTERN = Pattern.compile("\\b\\d{4}-\\d{2}-\\d{2}\\b");
+
+    /**
+     * Words that may appear in a routable question. Anything else (e.g. "payment"
+     * in "summary of payment errors") is a qualifier the tools cannot apply, so
+     * the question goes to the LLM instead of getting a too-broad answer.
+     */
+    private static final Set<String> ROUTABLE_WORDS = Set.of(
+            "a", "about", "all", "an", "and", "any", "are", "available", "been", "between", "breakdown", "by",
+            "can", "code", "codes", "count", "counts", "current", "currently", "detail", "details", "do", "entries",
+            "error", "errors", "failure", "failures", "file", "files", "find", "for", "from", "get", "give",
+            "group", "grouped", "have", "how", "i", "in", "ingested", "is", "issue", "issues", "list", "loaded",
+            "log", "logs", "many", "me", "message", "messages", "now", "occurrences", "of", "on", "overview",
+            "per", "please", "right", "show", "spike", "spikes", "spiking", "summarise", "summarize", "summary",
+            "tell", "the", "there", "to", "today", "top", "total", "totals", "unusual", "anomalies", "was",
+            "we", "were", "what", "which", "with", "yesterday", "you");
+
+    private final LogAnalysisTools tools;
+    private final boolean enabled;
+
+    public QueryIntentRouter(LogAnalysisTools tools, @Value("${router.enabled:true}") boolean enabled) {
+        this.tools = tools;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Tries to answer a question on the fast path.
+     *
+     * @param question The user's question.
+     * @return The answer, or empty if the question should go to the LLM.
+     */
+    public Optional<RoutedAnswer> route(String question) {
+        if (!enabled || question == null || question.isBlank()) {
+            return Optional.empty();
+        }
+        return classify(question).map(intent -> new RoutedAnswer(intent, answer(intent, question)));
+    }
+
+    /**
+     * Classifies a question into a structured intent.
+     *
+     * @param question The user's question.
+     * @return The intent, or empty for open-ended questions.
+     */
+    public Optional<Intent> classify(String question) {
+        String text = question.toLowerCase();
+        if (OPEN_ENDED_PATTERN.matcher(text).find() || hasUnroutableWords(question)) {
+            return Optional.empty();
+        }
+        // The tools take a single file or code; several would be answered for the first only
+        if (countDistinct(FILENAME_PATTERN, question) > 1 || countDistinct(ERROR_CODE_PATTERN, question) > 1) {
+            return Optional.empty();
+        }
+        if (hasInvalidDate(question)) {
+            return Optional.empty();
+        }
+
+        boolean dated = !dateRange(question).isUnbounded();
+        boolean hasFile = FILENAME_PATTERN.matcher(question).find();
+        boolean hasCode = ERROR_CODE_PATTERN.matcher(question).find();
+        boolean summary = SUMMARY_PATTERN.matcher(text).find();
+        Intent intent;
+        if (SPIKES_PATTERN.matcher(text).find()) {
+            intent = Intent.ERROR_SPIKES;
+        } else if (hasFile && (summary || ERRORS_PATTERN.matcher(text).find())) {
+            intent = Intent.FILE_ERROR_SUMMARY;
+        } else if (hasCode && DETAILS_PATTERN.matcher(text).find()) {
+            intent = Intent.ERROR_DETAILS;
+        } else if (FILE_LIST_PATTERN.matcher(text).find()) {
+            intent = Intent.FILE_LIST;
+        } else if (summary && ERRORS_PATTERN.matcher(text).find()) {
+            intent = dated ? Intent.DATE_RANGE_SUMMARY : Intent.ERROR_SUMMARY;
+        } else {
+            return Optional.empty();
+        }
+
+        // A qualifier the chosen tool ignores would get an answer broader than the question
+        boolean ignoresDate = dated && intent != Intent.DATE_RANGE_SUMMARY;
+        boolean ignoresFile = hasFile && intent != Intent.FILE_ERROR_SUMMARY;
+        boolean ignoresCode = hasCode && intent != Intent.ERROR_DETAILS;
+        if (ignoresDate || ignoresFile || ignoresCode) {
+            return Optional.empty();
+        }
+        return Optional.of(intent);
+    }
+
+    private String answer(Intent intent, String question) {
+        return switch (intent) {
+            case ERROR_SUMMARY -> tools.getErrorSummary();
+            case DATE_RANGE_SUMMARY -> {
+                QueryDateRange range = dateRange(question);
+                yield tools.getErrorSummaryForDateRange(range.from().toString(), range.to().toString());
+            }
+            case FILE_ERROR_SUMMARY -> tools.getErrorSummaryForFile(firstMatch(FILENAME_PATTERN, question));
+            case ERROR_DETAILS -> tools.getErrorDetails(firstMatch(ERROR_CODE_PATTERN, question));
+            case FILE_LIST -> tools.listIngestedFiles();
+            case ERROR_SPIKES -> tools.getErrorSpikes();
+        };
+    }
+
+    private static boolean hasUnroutableWords(String question) {
+        // Arguments the tools accept are not qualifiers
+        String stripped = FILENAME_PATTERN.matcher(question).replaceAll(" ");
+        stripped = ERROR_CODE_PATTERN.matcher(stripped).replaceAll(" ");
+        stripped = ISO_DATE_PATTERN.matcher(stripped).replaceAll(" ");
+        for (String word : stripped.toLowerCase().split("[^a-z0-9]+")) {
+            if (!word.isEmpty() && !ROUTABLE_WORDS.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long countDistinct(Pattern pattern, String text) {
+        return pattern.matcher(text).results().map(result -> result.group(1)).distinct().count();
+    }
+
+    private static QueryDateRange dateRange(String question) {
+        // Dates inside file names (app-2025-01-01.log) are not date qualifiers
+        return QueryDateRange.parse(FILENAME_PATTERN.matcher(question).replaceAll(" "));
+    }
+
+    private static boolean hasInvalidDate(String question) {
+        // Date-like tokens are accepted as routable words, so they must also be usable
+        Matcher matcher = ISO_DATE_PATTERN.matcher(FILENAME_PATTERN.matcher(question).replaceAll(" "));
+        while (matcher.find()) {
+            try {
+                LocalDate.parse(matcher.group());
+            } catch (DateTimeParseException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String firstMatch(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
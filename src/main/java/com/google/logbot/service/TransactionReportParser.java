@@ -2,10 +2,13 @@ package com.google.logbot.service;
 
 import com.google.logbot.model.LogEntry;
 import com.google.logbot.repository.LogRepository;
+import com.google.logbot.store.PartitionedEmbeddingStore;
+import com.google.logbot.store.TrigramIndex;
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.Metadata;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -27,9 +30,14 @@ import java.util.regex.Pattern;
 public class TransactionReportParser {
 
     private final LogRepository logRepository;
+    private final ErrorRateAnomalyDetector anomalyDetector;
+    private final TrigramIndex trigramIndex;
 
-    public TransactionReportParser(LogRepository logRepository) {
+    public TransactionReportParser(LogRepository logRepository, ErrorRateAnomalyDetector anomalyDetector,
+            TrigramIndex trigramIndex) {
         this.logRepository = logRepository;
+        this.anomalyDetector = anomalyDetector;
+        this.trigramIndex = trigramIndex;
     }
 
     // Regex to capture the Account ID at the start of a line
@@ -42,25 +50,58 @@ public class TransactionReportParser {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy h:mma");
 
+    // Entries are saved in batches of this size
+    private static final int SAVE_BATCH_SIZE = 500;
+
     // Regex to capture Transaction lines (New Acct, etc) if they appear on the same
     // line as account or separate
     // For now, key focus is Account ID + Error
 
     /**
-     * Parses the content of a transaction report.
+     * Opens an incremental parser for a report. Lines are fed one at a time as
+     * they are read, so reports of any size can be processed without holding
+     * them in memory. The report date is taken from the first page header.
      *
-     * @param content  The raw text content of the report.
      * @param filename The source filename.
-     * @return A list of {@link Document} objects for vector ingestion.
+     * @return A parser that must be {@link ReportParser#finish() finished} after
+     *         the last line.
+     */
+    public ReportParser openReport(String filename) {
+        return new ReportParser(filename);
+    }
+
+    /**
+     * Streaming parser for a single transaction report.
+     * <p>
+     * Tracks the current account across lines and turns every error message
+     * line into a {@link Document} and a structured entry; entries are saved in
+     * batches.
+     * </p>
      */
-    public List<Document> parse(String content, String filename) {
-        List<Document> documents = new ArrayList<>();
-        String[] lines = content.split("\n");
+    public class ReportParser {
 
-        String currentAccountId = "UNKNOWN";
-        LocalDateTime reportTime = extractReportDate(content); // Base time for all entries in this report
+        private final String filename;
+        private final List<LogEntry> pending = new ArrayList<>(SAVE_BATCH_SIZE);
+        private String currentAccountId = "UNKNOWN";
+        private LocalDateTime reportTime; // Base time for all entries in this report
+        private long rows;
+
+        private ReportParser(String filename) {
+            this.filename = filename;
+        }
+
+        /**
+         * Feeds the next line of the report.
+         *
+         * @param line The line, without terminator.
+         * @return The document for vector ingestion if the line was an error
+         *         message, otherwise null.
+         */
+        public Document acceptLine(String line) {
+            if (reportTime == null && line.contains("DATE:")) {
+                reportTime = extractReportDate(line);
+            }
 
-        for (String line : lines) {
             // Check for Account ID
             Matcher accountMatcher = ACCOUNT_LINE_PATTERN.matcher(line);
             if (accountMatcher.find()) {
@@ -69,45 +110,64 @@ public class TransactionReportParser {
 
             // Check for Error Message
             Matcher errorMatcher = ERROR_MESSAGE_PATTERN.matcher(line);
-            if (errorMatcher.find()) {
-                String fullErrorMessage = errorMatcher.group(1).trim();
-
-                // Extract Error Code (first token usually)
-                String errorCode = fullErrorMessage.split("\\s+")[0];
-
-                String text = String.format("Account: %s | Error: %s", currentAccountId, fullErrorMessage);
-
-                Metadata metadata = Metadata.from("source_file", filename);
-                metadata.put("log_type", "Transaction Report Error");
-                metadata.put("account_id", currentAccountId);
-                metadata.put("error_code", errorCode);
-                if (reportTime != null) {
-                    metadata.put("report_date", reportTime.toString());
-                }
-
-                documents.add(Document.from(text, metadata));
-
-                // Persist to DB for SQL Counting
-                if (reportTime == null)
-                    reportTime = LocalDateTime.now(); // Fallback
-                LogEntry entry = new LogEntry(
-                        reportTime,
-                        "ERROR",
-                        "TransactionService",
-                        errorCode,
-                        fullErrorMessage,
-                        text,
-                        "Transaction Report",
-                        filename);
-                try {
-                    logRepository.save(entry);
-                } catch (Exception e) {
-                    // ignore duplicates or persistence errors to ensure flow continues
-                }
+            if (!errorMatcher.find()) {
+                return null;
             }
+            String fullErrorMessage = errorMatcher.group(1).trim();
+
+            // Extract Error Code (first token usually)
+            String errorCode = fullErrorMessage.split("\\s+")[0];
+
+            String text = String.format("Account: %s | Error: %s", currentAccountId, fullErrorMessage);
+            LocalDate partitionDay = reportTime != null ? reportTime.toLocalDate() : LocalDate.now();
+
+            Metadata metadata = Metadata.from("source_file", filename);
+            metadata.put("log_type", "Transaction Report Error");
+            metadata.put("account_id", currentAccountId);
+            metadata.put("error_code", errorCode);
+            metadata.put(PartitionedEmbeddingStore.PARTITION_KEY, partitionDay.toString());
+            if (reportTime != null) {
+                metadata.put("report_date", reportTime.toString());
+            }
+
+            // Persist to DB for SQL Counting; a later DATE: header still sets reportTime
+            LocalDateTime entryTime = reportTime != null ? reportTime : LocalDateTime.now();
+            pending.add(new LogEntry(
+                    entryTime,
+                    "ERROR",
+                    "TransactionService",
+                    errorCode,
+                    fullErrorMessage,
+                    text,
+                    "Transaction Report",
+                    filename));
+            if (pending.size() >= SAVE_BATCH_SIZE) {
+                flush();
+            }
+
+            return Document.from(text, metadata);
+        }
+
+        /**
+         * Saves everything still pending.
+         *
+         * @return Number of entries saved from this report.
+         */
+        public long finish() {
+            flush();
+            return rows;
         }
 
-        return documents;
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<LogEntry> saved = LogEntryBatchSaver.save(logRepository, pending, filename);
+            saved.forEach(anomalyDetector::record);
+            trigramIndex.addAll(saved);
+            rows += saved.size();
+            pending.clear();
+        }
     }
 
     private LocalDateTime extractReportDate(String content) {
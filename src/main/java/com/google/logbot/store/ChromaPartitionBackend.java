@@ -0,0 +1,97 @@
+package com.google.logbot.store;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.chroma.ChromaEmbeddingStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partition backend storing each day in its own ChromaDB collection.
+ * <p>
+ * Collections are named {@code <prefix>-yyyyMMdd}. Dropping a partition
+ * deletes the whole collection through the Chroma REST API instead of removing
+ * embeddings one by one.
+ * </p>
+ */
+public class ChromaPartitionBackend implements PartitionBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChromaPartitionBackend.class);
+
+    private static final DateTimeFormatter SUFFIX_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final String baseUrl;
+    private final String collectionPrefix;
+    private final Duration timeout;
+    private final RestClient restClient;
+
+    public ChromaPartitionBackend(String baseUrl, String collectionPrefix, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.collectionPrefix = collectionPrefix;
+        this.timeout = timeout;
+        this.restClient = RestClient.create(baseUrl);
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> open(LocalDate day) {
+        return ChromaEmbeddingStore.builder()
+                .baseUrl(baseUrl)
+                .collectionName(collectionName(day))
+                .timeout(timeout)
+                .build();
+    }
+
+    /**
+     * Lists the day collections in Chroma.
+     *
+     * @throws RuntimeException if Chroma cannot be reached, so callers do not
+     *                          mistake an outage for an empty store.
+     */
+    @Override
+    public Collection<LocalDate> existing() {
+        List<Map<String, Object>> collections = restClient.get().uri("/api/v1/collections").retrieve()
+                .body(new ParameterizedTypeReference<List<Map<String, Object>>>() {
+                });
+        List<LocalDate> days = new ArrayList<>();
+        if (collections == null) {
+            return days;
+        }
+        String prefix = collectionPrefix + "-";
+        for (Map<String, Object> collection : collections) {
+            if (collection.get("name") instanceof String name && name.startsWith(prefix)) {
+                try {
+                    days.add(LocalDate.parse(name.substring(prefix.length()), SUFFIX_FORMATTER));
+                } catch (DateTimeParseException e) {
+                    // Same prefix but not one of our day collections
+                }
+            }
+        }
+        return days;
+    }
+
+    @Override
+    public void verify() {
+        restClient.get().uri("/api/v1/heartbeat").retrieve().toBodilessEntity();
+    }
+
+    @Override
+    public void drop(LocalDate day) {
+        restClient.delete().uri("/api/v1/collections/{name}", collectionName(day)).retrieve().toBodilessEntity();
+        logger.info("Dropped Chroma collection {}", collectionName(day));
+    }
+
+    private String collectionName(LocalDate day) {
+        return collectionPrefix + "-" + day.format(SUFFIX_FORMATTER);
+    }
+}
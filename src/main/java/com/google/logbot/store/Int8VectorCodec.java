@@ -0,0 +1,68 @@
+package com.google.logbot.store;
+
+/**
+ * Scalar quantization of each component to a signed byte.
+ * <p>
+ * Every vector is scaled by its own largest absolute component so the full
+ * int8 range is used; the scale is stored in front of the code as a float.
+ * A 384-dimension vector takes 388 bytes instead of 1536.
+ * </p>
+ */
+public class Int8VectorCodec implements VectorCodec {
+
+    private static final int SCALE_BYTES = Float.BYTES;
+
+    private final int dimension;
+
+    public Int8VectorCodec(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public int codeSize() {
+        return SCALE_BYTES + dimension;
+    }
+
+    @Override
+    public void encode(float[] vector, byte[] target, int offset) {
+        float maxAbs = 0;
+        for (float value : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(value));
+        }
+        float scale = maxAbs / 127f;
+        writeFloat(scale, target, offset);
+
+        int codeOffset = offset + SCALE_BYTES;
+        for (int i = 0; i < dimension; i++) {
+            target[codeOffset + i] = scale == 0 ? 0 : (byte) Math.round(vector[i] / scale);
+        }
+    }
+
+    @Override
+    public Scorer scorer(float[] query) {
+        return (codes, offset) -> {
+            int codeOffset = offset + SCALE_BYTES;
+            float sum = 0;
+            for (int i = 0; i < dimension; i++) {
+                sum += query[i] * codes[codeOffset + i];
+            }
+            return sum * readFloat(codes, offset);
+        };
+    }
+
+    private static void writeFloat(float value, byte[] target, int offset) {
+        int bits = Float.floatToRawIntBits(value);
+        target[offset] = (byte) (bits >>> 24);
+        target[offset + 1] = (byte) (bits >>> 16);
+        target[offset + 2] = (byte) (bits >>> 8);
+        target[offset + 3] = (byte) bits;
+    }
+
+    private static float readFloat(byte[] source, int offset) {
+        int bits = (source[offset] & 0xFF) << 24
+                | (source[offset + 1] & 0xFF) << 16
+                | (source[offset + 2] & 0xFF) << 8
+                | (source[offset + 3] & 0xFF);
+        return Float.intBitsToFloat(bits);
+    }
+}
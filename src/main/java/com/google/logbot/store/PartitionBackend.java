@@ -0,0 +1,55 @@
+package com.google.logbot.store;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Physical storage behind a {@link PartitionedEmbeddingStore}.
+ * <p>
+ * Opens one embedding store per day partition and knows how to discover and
+ * drop partitions that already exist in the underlying system.
+ * </p>
+ */
+@FunctionalInterface
+public interface PartitionBackend {
+
+    /**
+     * Opens (creating if needed) the store holding a single day partition.
+     *
+     * @param day The partition day.
+     * @return The store for that partition.
+     */
+    EmbeddingStore<TextSegment> open(LocalDate day);
+
+    /**
+     * Lists partitions that already exist in the backend, e.g. from a previous
+     * run.
+     *
+     * @return Existing partition days.
+     * @throws RuntimeException if the backend cannot be listed; an empty
+     *                          result must mean there are no partitions.
+     */
+    default Collection<LocalDate> existing() {
+        return List.of();
+    }
+
+    /**
+     * Checks that the backend is reachable.
+     *
+     * @throws RuntimeException if it is not.
+     */
+    default void verify() {
+    }
+
+    /**
+     * Drops a whole partition.
+     *
+     * @param day The partition day.
+     */
+    default void drop(LocalDate day) {
+    }
+}
@@ -0,0 +1,424 @@
+package com.google.logbot.store;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import dev.langchain4j.store.embedding.filter.comparison.IsEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsGreaterThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsIn;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThan;
+import dev.langchain4j.store.embedding.filter.comparison.IsLessThanOrEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsNotEqualTo;
+import dev.langchain4j.store.embedding.filter.comparison.IsNotIn;
+import dev.langchain4j.store.embedding.filter.logical.And;
+import dev.langchain4j.store.embedding.filter.logical.Not;
+import dev.langchain4j.store.embedding.filter.logical.Or;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+
+/**
+ * Embedding store split into one physical store per day.
+ * <p>
+ * Segments are routed by their {@value #PARTITION_KEY} metadata (an ISO date).
+ * Searches fan out in parallel to the relevant partitions and the per-partition
+ * top-K lists are merged into a global top-K. Range constraints on the
+ * partition key inside the request filter are used to prune partitions, so
+ * time-bounded questions only touch the days they need. Partition-key
+ * comparisons in any other position (under {@code Or} or {@code Not}) cannot
+ * prune, so every partition is scanned and the comparisons are resolved
+ * against each partition's day instead. Retention drops whole partitions
+ * through the {@link PartitionBackend}.
+ * </p>
+ */
+public class PartitionedEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedEmbeddingStore.class);
+
+    /** Metadata key carrying the ISO day (yyyy-MM-dd) of a segment. */
+    public static final String PARTITION_KEY = "partition";
+
+    // Outcomes of resolving a filter against one partition; never passed to a backend
+    private static final Filter MATCH_ALL = object -> true;
+    private static final Filter MATCH_NONE = object -> false;
+
+    private final PartitionBackend backend;
+    private final ConcurrentSkipListMap<LocalDate, EmbeddingStore<TextSegment>> openPartitions = new ConcurrentSkipListMap<>();
+    private final NavigableSet<LocalDate> knownPartitions = new ConcurrentSkipListSet<>();
+    private final ExecutorService searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean discovered;
+
+    public PartitionedEmbeddingStore(PartitionBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * Builds a filter restricting a search to an inclusive range of partitions.
+     *
+     * @param from First day (inclusive), or null for unbounded.
+     * @param to   Last day (inclusive), or null for unbounded.
+     * @return The filter, or null if both bounds are null.
+     */
+    public static Filter partitionRange(LocalDate from, LocalDate to) {
+        Filter lower = from != null ? metadataKey(PARTITION_KEY).isGreaterThanOrEqualTo(from.toString()) : null;
+        Filter upper = to != null ? metadataKey(PARTITION_KEY).isLessThanOrEqualTo(to.toString()) : null;
+        if (lower == null) {
+            return upper;
+        }
+        return upper == null ? lower : lower.and(upper);
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        return partition(LocalDate.now()).add(embedding);
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        partition(LocalDate.now()).add(id, embedding);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        return partition(partitionOf(segment)).add(embedding, segment);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        return partition(LocalDate.now()).addAll(embeddings);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> segments) {
+        Map<LocalDate, List<Integer>> indicesByDay = new LinkedHashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            indicesByDay.computeIfAbsent(partitionOf(segments.get(i)), day -> new ArrayList<>()).add(i);
+        }
+
+        String[] ids = new String[embeddings.size()];
+        for (Map.Entry<LocalDate, List<Integer>> group : indicesByDay.entrySet()) {
+            List<Embedding> groupEmbeddings = new ArrayList<>(group.getValue().size());
+            List<TextSegment> groupSegments = new ArrayList<>(group.getValue().size());
+            for (int index : group.getValue()) {
+                groupEmbeddings.add(embeddings.get(index));
+                groupSegments.add(segments.get(index));
+            }
+            List<String> groupIds = partition(group.getKey()).addAll(groupEmbeddings, groupSegments);
+            for (int i = 0; i < groupIds.size(); i++) {
+                ids[group.getValue().get(i)] = groupIds.get(i);
+            }
+        }
+        return List.of(ids);
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        Filter filter = request.filter();
+        validatePartitionValues(filter);
+        LocalDate[] range = bounds(filter);
+
+        // Partition-key comparisons are answered per partition; backends such as Chroma
+        // only support numeric range operators, so they are not passed down.
+        List<Future<EmbeddingSearchResult<TextSegment>>> futures = new ArrayList<>();
+        for (LocalDate day : selectPartitions(range[0], range[1])) {
+            Filter partitionFilter = resolve(filter, day);
+            if (partitionFilter == MATCH_NONE) {
+                continue;
+            }
+            EmbeddingSearchRequest partitionRequest = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(request.queryEmbedding())
+                    .maxResults(request.maxResults())
+                    .minScore(request.minScore())
+                    .filter(partitionFilter == MATCH_ALL ? null : partitionFilter)
+                    .build();
+            futures.add(searchExecutor.submit(() -> partition(day).search(partitionRequest)));
+        }
+        if (futures.isEmpty()) {
+            return new EmbeddingSearchResult<>(List.of());
+        }
+
+        List<EmbeddingMatch<TextSegment>> merged = new ArrayList<>();
+        for (Future<EmbeddingSearchResult<TextSegment>> future : futures) {
+            merged.addAll(await(future).matches());
+        }
+        merged.sort(Comparator.comparingDouble((EmbeddingMatch<TextSegment> match) -> match.score()).reversed());
+        return new EmbeddingSearchResult<>(merged.subList(0, Math.min(request.maxResults(), merged.size())));
+    }
+
+    /**
+     * Returns all known partitions, oldest first, including those created by a
+     * previous run.
+     *
+     * @return The partition days.
+     */
+    public NavigableSet<LocalDate> partitions() {
+        discover();
+        return knownPartitions;
+    }
+
+    /**
+     * Checks that the underlying backend is reachable.
+     *
+     * @throws RuntimeException if it is not.
+     */
+    public void verify() {
+        backend.verify();
+    }
+
+    /**
+     * Drops a whole partition from the backend.
+     *
+     * @param day The partition day.
+     */
+    public void dropPartition(LocalDate day) {
+        // Unlisted first so new searches stop routing to the partition being dropped
+        knownPartitions.remove(day);
+        openPartitions.remove(day);
+        backend.drop(day);
+    }
+
+    private NavigableSet<LocalDate> selectPartitions(LocalDate from, LocalDate to) {
+        NavigableSet<LocalDate> all = partitions();
+        if (from != null && to != null) {
+            return from.isAfter(to) ? new ConcurrentSkipListSet<>() : all.subSet(from, true, to, true);
+        }
+        if (from != null) {
+            return all.tailSet(from, true);
+        }
+        return to != null ? all.headSet(to, true) : all;
+    }
+
+    private EmbeddingStore<TextSegment> partition(LocalDate day) {
+        knownPartitions.add(day);
+        return openPartitions.computeIfAbsent(day, backend::open);
+    }
+
+    private void discover() {
+        if (!discovered) {
+            synchronized (this) {
+                if (!discovered) {
+                    try {
+                        knownPartitions.addAll(backend.existing());
+                        discovered = true;
+                    } catch (Exception e) {
+                        // Retried on the next call; until then only partitions seen by this process are used
+                        logger.warn("Could not list existing partitions: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private static LocalDate partitionOf(TextSegment segment) {
+        String value = segment != null ? segment.metadata().getString(PARTITION_KEY) : null;
+        if (value != null) {
+            try {
+                return LocalDate.parse(value);
+            } catch (DateTimeParseException e) {
+                // Fall through to the current day
+            }
+        }
+        return LocalDate.now();
+    }
+
+    /**
+     * Checks every partition-key comparison in a filter before any partition is
+     * searched.
+     *
+     * @throws IllegalArgumentException if a compared value is not an ISO date.
+     */
+    private static void validatePartitionValues(Filter filter) {
+        if (filter instanceof And and) {
+            validatePartitionValues(and.left());
+            validatePartitionValues(and.right());
+        } else if (filter instanceof Or or) {
+            validatePartitionValues(or.left());
+            validatePartitionValues(or.right());
+        } else if (filter instanceof Not not) {
+            validatePartitionValues(not.expression());
+        } else if (isPartitionComparison(filter)) {
+            partitionValues(filter).forEach(PartitionedEmbeddingStore::day);
+        }
+    }
+
+    /**
+     * Extracts the inclusive [from, to] partition range implied by a filter.
+     * Only comparisons reachable through {@code And} narrow the range; anything
+     * else leaves it unbounded.
+     */
+    private static LocalDate[] bounds(Filter filter) {
+        if (filter instanceof And and) {
+            LocalDate[] left = bounds(and.left());
+            LocalDate[] right = bounds(and.right());
+            return new LocalDate[] { later(left[0], right[0]), earlier(left[1], right[1]) };
+        }
+        if (filter instanceof IsEqualTo eq && PARTITION_KEY.equals(eq.key())) {
+            LocalDate day = day(eq.comparisonValue());
+            return new LocalDate[] { day, day };
+        }
+        if (filter instanceof IsGreaterThanOrEqualTo gte && PARTITION_KEY.equals(gte.key())) {
+            return new LocalDate[] { day(gte.comparisonValue()), null };
+        }
+        if (filter instanceof IsGreaterThan gt && PARTITION_KEY.equals(gt.key())) {
+            return new LocalDate[] { day(gt.comparisonValue()).plusDays(1), null };
+        }
+        if (filter instanceof IsLessThanOrEqualTo lte && PARTITION_KEY.equals(lte.key())) {
+            return new LocalDate[] { null, day(lte.comparisonValue()) };
+        }
+        if (filter instanceof IsLessThan lt && PARTITION_KEY.equals(lt.key())) {
+            return new LocalDate[] { null, day(lt.comparisonValue()).minusDays(1) };
+        }
+        return new LocalDate[] { null, null };
+    }
+
+    /**
+     * Rewrites a filter for the segments of one partition, all of which carry
+     * that partition's day: partition-key comparisons become constants, which
+     * are then folded away.
+     *
+     * @return The remaining filter, {@link #MATCH_ALL} if nothing remains, or
+     *         {@link #MATCH_NONE} if no segment in the partition can match.
+     */
+    private static Filter resolve(Filter filter, LocalDate day) {
+        if (filter == null) {
+            return MATCH_ALL;
+        }
+        if (filter instanceof And and) {
+            Filter left = resolve(and.left(), day);
+            Filter right = resolve(and.right(), day);
+            if (left == MATCH_NONE || right == MATCH_NONE) {
+                return MATCH_NONE;
+            }
+            if (left == MATCH_ALL) {
+                return right;
+            }
+            return right == MATCH_ALL ? left : new And(left, right);
+        }
+        if (filter instanceof Or or) {
+            Filter left = resolve(or.left(), day);
+            Filter right = resolve(or.right(), day);
+            if (left == MATCH_ALL || right == MATCH_ALL) {
+                return MATCH_ALL;
+            }
+            if (left == MATCH_NONE) {
+                return right;
+            }
+            return right == MATCH_NONE ? left : new Or(left, right);
+        }
+        if (filter instanceof Not not) {
+            Filter expression = resolve(not.expression(), day);
+            if (expression == MATCH_ALL) {
+                return MATCH_NONE;
+            }
+            return expression == MATCH_NONE ? MATCH_ALL : new Not(expression);
+        }
+        if (isPartitionComparison(filter)) {
+            return matches(filter, day) ? MATCH_ALL : MATCH_NONE;
+        }
+        return filter;
+    }
+
+    private static boolean matches(Filter comparison, LocalDate day) {
+        if (comparison instanceof IsIn in) {
+            return in.comparisonValues().stream().map(PartitionedEmbeddingStore::day).anyMatch(day::equals);
+        }
+        if (comparison instanceof IsNotIn notIn) {
+            return notIn.comparisonValues().stream().map(PartitionedEmbeddingStore::day).noneMatch(day::equals);
+        }
+        int order = day.compareTo(day(partitionValues(comparison).iterator().next()));
+        return switch (comparison) {
+            case IsEqualTo eq -> order == 0;
+            case IsNotEqualTo ne -> order != 0;
+            case IsGreaterThan gt -> order > 0;
+            case IsGreaterThanOrEqualTo gte -> order >= 0;
+            case IsLessThan lt -> order < 0;
+            case IsLessThanOrEqualTo lte -> order <= 0;
+            default -> throw new IllegalStateException("Unexpected partition comparison: " + comparison);
+        };
+    }
+
+    private static boolean isPartitionComparison(Filter filter) {
+        String key = switch (filter) {
+            case IsEqualTo eq -> eq.key();
+            case IsNotEqualTo ne -> ne.key();
+            case IsGreaterThan gt -> gt.key();
+            case IsGreaterThanOrEqualTo gte -> gte.key();
+            case IsLessThan lt -> lt.key();
+            case IsLessThanOrEqualTo lte -> lte.key();
+            case IsIn in -> in.key();
+            case IsNotIn notIn -> notIn.key();
+            case null, default -> null;
+        };
+        return PARTITION_KEY.equals(key);
+    }
+
+    private static Collection<?> partitionValues(Filter comparison) {
+        return switch (comparison) {
+            case IsEqualTo eq -> List.of(eq.comparisonValue());
+            case IsNotEqualTo ne -> List.of(ne.comparisonValue());
+            case IsGreaterThan gt -> List.of(gt.comparisonValue());
+            case IsGreaterThanOrEqualTo gte -> List.of(gte.comparisonValue());
+            case IsLessThan lt -> List.of(lt.comparisonValue());
+            case IsLessThanOrEqualTo lte -> List.of(lte.comparisonValue());
+            case IsIn in -> in.comparisonValues();
+            case IsNotIn notIn -> notIn.comparisonValues();
+            default -> List.of();
+        };
+    }
+
+    private static LocalDate day(Object value) {
+        try {
+            return LocalDate.parse(String.valueOf(value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Partition filter value '" + value
+                    + "' is not an ISO date (yyyy-MM-dd)", e);
+        }
+    }
+
+    private static LocalDate later(LocalDate a, LocalDate b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate earlier(LocalDate a, LocalDate b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isBefore(b) ? a : b;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
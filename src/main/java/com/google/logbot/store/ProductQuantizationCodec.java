@@ -0,0 +1,153 @@
+package com.google.logbot.store;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Product quantization with 256 centroids per subspace.
+ * <p>
+ * The vector is split into {@code subspaces} equal slices and each slice is
+ * replaced by the index of its nearest centroid, one byte per slice. With 96
+ * subspaces a 384-dimension vector takes 96 bytes instead of 1536. Centroids
+ * are learned with k-means on the first vectors of a partition. Queries are
+ * scored with a per-query lookup table of slice-to-centroid dot products, so
+ * scoring a code costs one table lookup per subspace.
+ * </p>
+ */
+public class ProductQuantizationCodec implements VectorCodec {
+
+    private static final int CENTROIDS = 256;
+
+    private final int subspaces;
+    private final int subDimension;
+    private final int trainingSize;
+    private final int iterations;
+    private final long seed;
+
+    /** Per subspace: CENTROIDS x subDimension, row-major. */
+    private volatile float[][] codebooks;
+
+    public ProductQuantizationCodec(int dimension, int subspaces, int trainingSize, int iterations, long seed) {
+        if (dimension % subspaces != 0) {
+            throw new IllegalArgumentException(
+                    "Dimension " + dimension + " is not divisible into " + subspaces + " subspaces");
+        }
+        this.subspaces = subspaces;
+        this.subDimension = dimension / subspaces;
+        this.trainingSize = Math.max(trainingSize, CENTROIDS);
+        this.iterations = iterations;
+        this.seed = seed;
+    }
+
+    @Override
+    public int codeSize() {
+        return subspaces;
+    }
+
+    @Override
+    public boolean isTrained() {
+        return codebooks != null;
+    }
+
+    @Override
+    public int trainingSize() {
+        return trainingSize;
+    }
+
+    @Override
+    public void train(List<float[]> sample) {
+        // Subspaces are independent; each gets its own seeded generator so the
+        // result does not depend on scheduling
+        float[][] trained = new float[subspaces][];
+        IntStream.range(0, subspaces).parallel()
+                .forEach(s -> trained[s] = kMeans(sample, s * subDimension, new Random(seed + s)));
+        codebooks = trained;
+    }
+
+    @Override
+    public void encode(float[] vector, byte[] target, int offset) {
+        float[][] books = codebooks;
+        for (int s = 0; s < subspaces; s++) {
+            target[offset + s] = (byte) nearest(books[s], vector, s * subDimension);
+        }
+    }
+
+    @Override
+    public Scorer scorer(float[] query) {
+        float[][] books = codebooks;
+        float[] table = new float[subspaces * CENTROIDS];
+        for (int s = 0; s < subspaces; s++) {
+            int start = s * subDimension;
+            for (int c = 0; c < CENTROIDS; c++) {
+                float dot = 0;
+                for (int d = 0; d < subDimension; d++) {
+                    dot += query[start + d] * books[s][c * subDimension + d];
+                }
+                table[s * CENTROIDS + c] = dot;
+            }
+        }
+        return (codes, offset) -> {
+            float sum = 0;
+            for (int s = 0; s < subspaces; s++) {
+                sum += table[s * CENTROIDS + (codes[offset + s] & 0xFF)];
+            }
+            return sum;
+        };
+    }
+
+    private float[] kMeans(List<float[]> sample, int start, Random random) {
+        float[] centroids = new float[CENTROIDS * subDimension];
+        for (int c = 0; c < CENTROIDS; c++) {
+            System.arraycopy(sample.get(random.nextInt(sample.size())), start, centroids, c * subDimension,
+                    subDimension);
+        }
+
+        int[] assignment = new int[sample.size()];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (int i = 0; i < sample.size(); i++) {
+                assignment[i] = nearest(centroids, sample.get(i), start);
+            }
+
+            float[] sums = new float[centroids.length];
+            int[] counts = new int[CENTROIDS];
+            for (int i = 0; i < sample.size(); i++) {
+                float[] vector = sample.get(i);
+                int c = assignment[i];
+                counts[c]++;
+                for (int d = 0; d < subDimension; d++) {
+                    sums[c * subDimension + d] += vector[start + d];
+                }
+            }
+            for (int c = 0; c < CENTROIDS; c++) {
+                if (counts[c] == 0) {
+                    // Reseed empty clusters from a random sample point
+                    System.arraycopy(sample.get(random.nextInt(sample.size())), start, centroids,
+                            c * subDimension, subDimension);
+                    continue;
+                }
+                for (int d = 0; d < subDimension; d++) {
+                    centroids[c * subDimension + d] = sums[c * subDimension + d] / counts[c];
+                }
+            }
+        }
+        return centroids;
+    }
+
+    private int nearest(float[] centroids, float[] vector, int start) {
+        int best = 0;
+        float bestDistance = Float.MAX_VALUE;
+        for (int c = 0; c < CENTROIDS; c++) {
+            float distance = 0;
+            for (int d = 0; d < subDimension; d++) {
+                float diff = vector[start + d] - centroids[c * subDimension + d];
+                distance += diff * diff;
+            }
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+}
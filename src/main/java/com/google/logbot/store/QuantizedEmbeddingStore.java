@@ -0,0 +1,644 @@
+package com.google.logbot.store;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.internal.Utils;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedding store keeping compressed vectors in memory and everything else on
+ * disk.
+ * <p>
+ * Each vector is encoded with a {@link VectorCodec} and only the codes, the
+ * vector norms and one file offset per row are held in memory. Exact vectors
+ * go to an append-only vector file, and ids, segment text and metadata to an
+ * append-only row file. Searches score every code against the query, keep the
+ * best {@code maxResults * rerankFactor} candidates and re-rank those with
+ * their exact vectors; rows are read back only for the final results, or for
+ * candidates that must be checked against a metadata filter. Until a codec
+ * that needs training has seen enough vectors, rows are encoded with
+ * {@link Int8VectorCodec} and re-encoded from the vector file once the codec
+ * is trained; training runs on the inserting thread outside the lock, so
+ * searches and other inserts continue meanwhile.
+ * </p>
+ * <p>
+ * Existing files are loaded when the store is created, so a partition
+ * survives a restart. A trailing row whose write was interrupted is
+ * discarded.
+ * </p>
+ */
+public class QuantizedEmbeddingStore implements EmbeddingStore<TextSegment>, AutoCloseable {
+
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+
+    // Code chunks start at this many rows and double up to CHUNK_ROWS
+    private static final int MIN_CHUNK_ROWS = 64;
+
+    // Type tags of metadata values in the row file
+    private static final byte STRING = 0;
+    private static final byte UUID_VALUE = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte FLOAT = 4;
+    private static final byte DOUBLE = 5;
+
+    private final VectorCodec codec;
+    private final int dimension;
+    private final int rerankFactor;
+    private final Path vectorFile;
+    private final Path rowFile;
+    private final FileChannel vectors;
+    private final FileChannel rows;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** {@link #codec} once trained, else {@link Int8VectorCodec}. */
+    private VectorCodec activeCodec;
+    /** Codes of the active codec. */
+    private List<byte[]> codeChunks = new ArrayList<>();
+    private float[] norms = new float[1024];
+    private long[] rowOffsets = new long[1024];
+    private long rowFileSize;
+    private int size;
+    private boolean training;
+    private boolean closed;
+
+    /**
+     * @param codec        Codec for the in-memory codes.
+     * @param dimension    Vector dimension.
+     * @param rerankFactor Candidates re-ranked with exact vectors, per result.
+     * @param vectorFile   File holding the exact vectors; loaded if present.
+     * @param rowFile      File holding ids, segment text and metadata;
+     *                     loaded if present.
+     */
+    public QuantizedEmbeddingStore(VectorCodec codec, int dimension, int rerankFactor, Path vectorFile,
+            Path rowFile) {
+        this.codec = codec;
+        this.activeCodec = codec.isTrained() ? codec : new Int8VectorCodec(dimension);
+        this.dimension = dimension;
+        this.rerankFactor = Math.max(rerankFactor, 1);
+        this.vectorFile = vectorFile;
+        this.rowFile = rowFile;
+        this.vectors = open(vectorFile);
+        this.rows = open(rowFile);
+        load();
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        String id = Utils.randomUUID();
+        add(id, embedding);
+        return id;
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        insert(List.of(id), List.of(embedding), null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment segment) {
+        String id = Utils.randomUUID();
+        insert(List.of(id), List.of(embedding), List.of(segment));
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        List<String> newIds = randomIds(embeddings.size());
+        insert(newIds, embeddings, null);
+        return newIds;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> embedded) {
+        List<String> newIds = randomIds(embeddings.size());
+        insert(newIds, embeddings, embedded);
+        return newIds;
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        float[] query = request.queryEmbedding().vector();
+        float queryNorm = norm(query);
+        if (queryNorm == 0) {
+            return new EmbeddingSearchResult<>(List.of());
+        }
+        Filter filter = request.filter();
+
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                // Dropped while the search was being routed here
+                return new EmbeddingSearchResult<>(List.of());
+            }
+            VectorCodec active = activeCodec;
+            int limit = request.maxResults() * rerankFactor;
+            VectorCodec.Scorer scorer = active.scorer(query);
+
+            // Min-heap of the best candidates by approximate cosine similarity
+            PriorityQueue<Candidate> heap = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Candidate::cosine));
+            for (int row = 0; row < size; row++) {
+                if (norms[row] == 0) {
+                    continue;
+                }
+                float dot = scorer.dot(codeChunks.get(row >>> CHUNK_SHIFT), (row & (CHUNK_ROWS - 1)) * active.codeSize());
+                double cosine = dot / (queryNorm * norms[row]);
+                if (heap.size() == limit && cosine <= heap.peek().cosine()) {
+                    continue;
+                }
+                // Only rows that would make the cut are read for filtering
+                StoredRow stored = filter != null ? readRow(row) : null;
+                if (filter != null && !matches(filter, stored.segment())) {
+                    continue;
+                }
+                if (heap.size() == limit) {
+                    heap.poll();
+                }
+                heap.add(new Candidate(row, cosine, stored));
+            }
+
+            // Re-rank the survivors with their exact vectors
+            List<ScoredRow> reranked = new ArrayList<>(heap.size());
+            for (Candidate candidate : heap) {
+                float[] vector = readVector(candidate.row());
+                double cosine = dot(query, vector) / (queryNorm * norms[candidate.row()]);
+                double score = RelevanceScore.fromCosineSimilarity(cosine);
+                if (score >= request.minScore()) {
+                    reranked.add(new ScoredRow(candidate, vector, score));
+                }
+            }
+            reranked.sort(Comparator.comparingDouble(ScoredRow::score).reversed());
+
+            // Read ids and segments for the final results only
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(request.maxResults());
+            for (ScoredRow scored : reranked.subList(0, Math.min(request.maxResults(), reranked.size()))) {
+                StoredRow stored = scored.candidate().stored() != null ? scored.candidate().stored()
+                        : readRow(scored.candidate().row());
+                matches.add(new EmbeddingMatch<>(scored.score(), stored.id(), Embedding.from(scored.vector()),
+                        stored.segment()));
+            }
+            return new EmbeddingSearchResult<>(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of stored vectors.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Heap bytes held for the stored rows: codes, norms and row file
+     *         offsets. Ids, segments and exact vectors are on disk.
+     */
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long codes = 0;
+            for (byte[] chunk : codeChunks) {
+                codes += chunk.length;
+            }
+            return codes + (long) norms.length * Float.BYTES + (long) rowOffsets.length * Long.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Bytes of the vector and row files.
+     */
+    public long diskBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) size * dimension * Float.BYTES + rowFileSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Closes and deletes the vector and row files. Waits for running searches;
+     * later searches return no results and later inserts fail.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            vectors.close();
+            rows.close();
+            Files.deleteIfExists(vectorFile);
+            Files.deleteIfExists(rowFile);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(List<String> newIds, List<Embedding> embeddings, List<TextSegment> embedded) {
+        boolean startTraining;
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Store is closed: " + vectorFile);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(embeddings.size() * dimension * Float.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (Embedding embedding : embeddings) {
+                float[] vector = embedding.vector();
+                if (vector.length != dimension) {
+                    throw new IllegalArgumentException(
+                            "Expected dimension " + dimension + " but got " + vector.length);
+                }
+                buffer.asFloatBuffer().put(vector);
+                buffer.position(buffer.position() + dimension * Float.BYTES);
+            }
+            buffer.flip();
+            write(vectors, buffer, (long) size * dimension * Float.BYTES);
+
+            ByteArrayOutputStream rowBytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(rowBytes);
+            for (int i = 0; i < embeddings.size(); i++) {
+                ensureCapacity();
+                rowOffsets[size] = rowFileSize + out.size();
+                writeRow(out, newIds.get(i), embedded != null ? embedded.get(i) : null);
+
+                float[] vector = embeddings.get(i).vector();
+                norms[size] = norm(vector);
+                encode(activeCodec, codeChunks, size, vector);
+                size++;
+            }
+            write(rows, ByteBuffer.wrap(rowBytes.toByteArray()), rowFileSize);
+            rowFileSize += rowBytes.size();
+
+            startTraining = needsTraining();
+            training |= startTraining;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (startTraining) {
+            try {
+                train();
+            } finally {
+                lock.writeLock().lock();
+                training = false;
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private boolean needsTraining() {
+        return !training && activeCodec != codec && size >= codec.trainingSize();
+    }
+
+    /**
+     * Trains the codec on the vectors stored so far and re-encodes them. The
+     * slow part runs without the lock: searches and inserts keep using the
+     * int8 codes, and rows added meanwhile are re-encoded before the swap.
+     */
+    private void train() {
+        int trainedRows;
+        List<float[]> sample;
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            trainedRows = size;
+            sample = new ArrayList<>(trainedRows);
+            for (int row = 0; row < trainedRows; row++) {
+                sample.add(readVector(row));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        codec.train(sample);
+        List<byte[]> trained = new ArrayList<>();
+        for (int row = 0; row < trainedRows; row++) {
+            encode(codec, trained, row, sample.get(row));
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            for (int row = trainedRows; row < size; row++) {
+                encode(codec, trained, row, readVector(row));
+            }
+            codeChunks = trained;
+            activeCodec = codec;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the in-memory state from files written by a previous run. Rows
+     * are only complete once both their vector and their row record are on
+     * disk; anything beyond that is truncated.
+     */
+    private void load() {
+        try {
+            long vectorBytes = (long) dimension * Float.BYTES;
+            long storedVectors = vectors.size() / vectorBytes;
+            if (storedVectors > 0) {
+                // Not closed: closing the stream would close the channel
+                CountingInputStream counter = new CountingInputStream(
+                        new BufferedInputStream(Channels.newInputStream(rows.position(0))));
+                DataInputStream in = new DataInputStream(counter);
+                while (size < storedVectors) {
+                    try {
+                        readRow(in);
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    ensureCapacity();
+                    rowOffsets[size] = rowFileSize;
+                    rowFileSize = counter.count;
+                    size++;
+                }
+            }
+            vectors.truncate(size * vectorBytes);
+            rows.truncate(rowFileSize);
+
+            for (int row = 0; row < size; row++) {
+                float[] vector = readVector(row);
+                norms[row] = norm(vector);
+                encode(activeCodec, codeChunks, row, vector);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (needsTraining()) {
+            train();
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size == norms.length) {
+            norms = Arrays.copyOf(norms, norms.length * 2);
+            rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+        }
+    }
+
+    /**
+     * Encodes a row into its chunk. Rows are encoded in order, so a chunk is
+     * added when its first row arrives and doubled when it is full.
+     */
+    private static void encode(VectorCodec codec, List<byte[]> chunks, int row, float[] vector) {
+        int chunk = row >>> CHUNK_SHIFT;
+        int offset = (row & (CHUNK_ROWS - 1)) * codec.codeSize();
+        if (chunks.size() == chunk) {
+            chunks.add(new byte[MIN_CHUNK_ROWS * codec.codeSize()]);
+        }
+        byte[] codes = chunks.get(chunk);
+        if (codes.length < offset + codec.codeSize()) {
+            codes = Arrays.copyOf(codes, Math.min(codes.length * 2, CHUNK_ROWS * codec.codeSize()));
+            chunks.set(chunk, codes);
+        }
+        codec.encode(vector, codes, offset);
+    }
+
+    private static void writeRow(DataOutputStream out, String id, TextSegment segment) throws IOException {
+        writeString(out, id);
+        out.writeBoolean(segment != null);
+        if (segment == null) {
+            return;
+        }
+        writeString(out, segment.text());
+        Map<String, Object> metadata = segment.metadata().toMap();
+        out.writeInt(metadata.size());
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            writeString(out, entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof UUID uuid) {
+                out.writeByte(UUID_VALUE);
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            } else if (value instanceof Integer number) {
+                out.writeByte(INTEGER);
+                out.writeInt(number);
+            } else if (value instanceof Long number) {
+                out.writeByte(LONG);
+                out.writeLong(number);
+            } else if (value instanceof Float number) {
+                out.writeByte(FLOAT);
+                out.writeFloat(number);
+            } else if (value instanceof Double number) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(number);
+            } else {
+                out.writeByte(STRING);
+                writeString(out, String.valueOf(value));
+            }
+        }
+    }
+
+    private StoredRow readRow(int row) {
+        long end = row + 1 < size ? rowOffsets[row + 1] : rowFileSize;
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - rowOffsets[row]));
+        read(rows, buffer, rowOffsets[row], rowFile);
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array()))) {
+            return readRow(in);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static StoredRow readRow(DataInputStream in) throws IOException {
+        String id = readString(in);
+        if (!in.readBoolean()) {
+            return new StoredRow(id, null);
+        }
+        String text = readString(in);
+        int entries = in.readInt();
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        for (int i = 0; i < entries; i++) {
+            String key = readString(in);
+            byte type = in.readByte();
+            Object value = switch (type) {
+                case UUID_VALUE -> new UUID(in.readLong(), in.readLong());
+                case INTEGER -> in.readInt();
+                case LONG -> in.readLong();
+                case FLOAT -> in.readFloat();
+                case DOUBLE -> in.readDouble();
+                default -> readString(in);
+            };
+            metadata.put(key, value);
+        }
+        return new StoredRow(id, TextSegment.from(text, Metadata.from(metadata)));
+    }
+
+    private float[] readVector(int row) {
+        ByteBuffer buffer = ByteBuffer.allocate(dimension * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        read(vectors, buffer, (long) row * dimension * Float.BYTES, vectorFile);
+        float[] vector = new float[dimension];
+        buffer.asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    private static FileChannel open(Path file) {
+        try {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, long position, Path file) {
+        try {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new IOException("Truncated file " + file);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        buffer.flip();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean matches(Filter filter, TextSegment segment) {
+        return segment != null && filter.test(segment.metadata());
+    }
+
+    private static List<String> randomIds(int count) {
+        List<String> newIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            newIds.add(Utils.randomUUID());
+        }
+        return newIds;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static float norm(float[] vector) {
+        return (float) Math.sqrt(dot(vector, vector));
+    }
+
+    private record Candidate(int row, double cosine, StoredRow stored) {
+    }
+
+    private record ScoredRow(Candidate candidate, float[] vector, double score) {
+    }
+
+    private record StoredRow(String id, TextSegment segment) {
+    }
+
+    /** Counts the bytes read through it, to find row offsets while loading. */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
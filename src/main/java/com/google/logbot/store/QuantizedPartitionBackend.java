@@ -0,0 +1,113 @@
+package com.google.logbot.store;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Partition backend storing each day in a local {@link QuantizedEmbeddingStore}.
+ * <p>
+ * Codes live in memory; exact vectors are kept in {@code <prefix>-yyyyMMdd.f32}
+ * and ids, segment text and metadata in {@code <prefix>-yyyyMMdd.rows} under
+ * the configured directory. Files left by a previous run are listed as
+ * existing partitions and loaded when the day is opened again.
+ * </p>
+ */
+public class QuantizedPartitionBackend implements PartitionBackend {
+
+    private static final DateTimeFormatter SUFFIX_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final Path directory;
+    private final String filePrefix;
+    private final Supplier<VectorCodec> codecFactory;
+    private final int dimension;
+    private final int rerankFactor;
+    private final Map<LocalDate, QuantizedEmbeddingStore> stores = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory    Directory for the vector and row files.
+     * @param filePrefix   Prefix of the per-day file names.
+     * @param codecFactory Creates the codec of each partition (codecs may be
+     *                     trained per partition, so they are not shared).
+     * @param dimension    Vector dimension.
+     * @param rerankFactor Candidates re-ranked with exact vectors, per result.
+     */
+    public QuantizedPartitionBackend(Path directory, String filePrefix, Supplier<VectorCodec> codecFactory,
+            int dimension, int rerankFactor) {
+        this.directory = directory;
+        this.filePrefix = filePrefix;
+        this.codecFactory = codecFactory;
+        this.dimension = dimension;
+        this.rerankFactor = rerankFactor;
+    }
+
+    @Override
+    public EmbeddingStore<TextSegment> open(LocalDate day) {
+        return stores.computeIfAbsent(day, d -> {
+            createDirectory();
+            String baseName = filePrefix + "-" + d.format(SUFFIX_FORMATTER);
+            return new QuantizedEmbeddingStore(codecFactory.get(), dimension, rerankFactor,
+                    directory.resolve(baseName + ".f32"), directory.resolve(baseName + ".rows"));
+        });
+    }
+
+    @Override
+    public Collection<LocalDate> existing() {
+        List<LocalDate> days = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return days;
+        }
+        String prefix = filePrefix + "-";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*.f32")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    days.add(LocalDate.parse(name.substring(prefix.length(), name.length() - ".f32".length()),
+                            SUFFIX_FORMATTER));
+                } catch (DateTimeParseException e) {
+                    // Same prefix but not one of our day files
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return days;
+    }
+
+    @Override
+    public void verify() {
+        createDirectory();
+        if (!Files.isWritable(directory)) {
+            throw new IllegalStateException("Vector directory is not writable: " + directory);
+        }
+    }
+
+    @Override
+    public void drop(LocalDate day) {
+        QuantizedEmbeddingStore store = stores.remove(day);
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private void createDirectory() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
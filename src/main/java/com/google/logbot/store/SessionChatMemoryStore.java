@@ -0,0 +1,249 @@
+package com.google.logbot.store;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bounded chat memory store holding one conversation per session.
+ * <p>
+ * Each live session is bound to one of {@code max-sessions} slots. The memory
+ * id handed to the AI service is a {@link SessionMemoryId} naming the slot,
+ * the session and the binding's generation, so a request that outlives its
+ * binding (the slot was evicted and given to another session meanwhile) can
+ * neither read nor overwrite the new owner's history. Listeners registered
+ * with {@link #onRelease(Consumer)} are told when an id is retired, so caches
+ * keyed by memory id stay bounded too. Sessions are kept in least-recently-used
+ * order. The store caps the total size of all stored messages, evicting the
+ * least recently used sessions first, and drops sessions idle for longer than
+ * the configured TTL; evicting a session frees its slot for reuse. Oversized
+ * tool results are truncated before they are stored so they do not inflate
+ * every later prompt.
+ * </p>
+ */
+@Component
+public class SessionChatMemoryStore implements ChatMemoryStore {
+
+    private static final String TRUNCATION_MARKER = "\n... [truncated]";
+
+    private final int maxSessions;
+    private final long maxTotalChars;
+    private final int maxToolResultChars;
+    private final long idleTtlMillis;
+
+    /** Access-ordered by slot: iteration starts at the least recently used session. */
+    private final LinkedHashMap<Integer, Session> sessions = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Integer> slotsBySession = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final List<Consumer<SessionMemoryId>> releaseListeners = new CopyOnWriteArrayList<>();
+    private long totalChars;
+    private long generation;
+
+    /**
+     * Memory id of one binding of a session to a slot.
+     *
+     * @param slot       The slot holding the session.
+     * @param sessionId  The client's session id.
+     * @param generation Distinguishes successive bindings of the same slot.
+     */
+    public record SessionMemoryId(int slot, String sessionId, long generation) {
+    }
+
+    public SessionChatMemoryStore(
+            @Value("${chat.memory.max-sessions:1000}") int maxSessions,
+            @Value("${chat.memory.max-total-chars:20000000}") long maxTotalChars,
+            @Value("${chat.memory.max-tool-result-chars:4000}") int maxToolResultChars,
+            @Value("${chat.memory.idle-ttl:30m}") Duration idleTtl) {
+        this.maxSessions = Math.max(maxSessions, 1);
+        this.maxTotalChars = maxTotalChars;
+        this.maxToolResultChars = maxToolResultChars;
+        this.idleTtlMillis = idleTtl.toMillis();
+        for (int slot = 0; slot < this.maxSessions; slot++) {
+            freeSlots.add(slot);
+        }
+    }
+
+    /**
+     * Returns the memory id of a session, binding the session to a free slot
+     * first if it has none. When all slots are taken, the least recently used
+     * session is evicted.
+     *
+     * @param sessionId The client's session id.
+     * @return The memory id to use for this session.
+     */
+    public synchronized SessionMemoryId memoryIdFor(String sessionId) {
+        Integer slot = slotsBySession.get(sessionId);
+        if (slot != null) {
+            Session session = sessions.get(slot);
+            if (!isExpired(session, System.currentTimeMillis())) {
+                return session.memoryId;
+            }
+            remove(slot);
+        }
+
+        if (freeSlots.isEmpty()) {
+            remove(sessions.keySet().iterator().next());
+        }
+        int free = freeSlots.poll();
+        SessionMemoryId memoryId = new SessionMemoryId(free, sessionId, ++generation);
+        sessions.put(free, new Session(memoryId, List.of(), 0, System.currentTimeMillis()));
+        slotsBySession.put(sessionId, free);
+        return memoryId;
+    }
+
+    /**
+     * Registers a callback run when a memory id is retired because its session
+     * was evicted, expired or deleted. Called while the store is locked.
+     *
+     * @param listener Receives the retired id.
+     */
+    public void onRelease(Consumer<SessionMemoryId> listener) {
+        releaseListeners.add(listener);
+    }
+
+    @Override
+    public synchronized List<ChatMessage> getMessages(Object memoryId) {
+        Session session = owner(memoryId);
+        if (session == null) {
+            return new ArrayList<>();
+        }
+        session.lastAccess = System.currentTimeMillis();
+        return new ArrayList<>(session.messages);
+    }
+
+    @Override
+    public synchronized void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        Session previous = owner(memoryId);
+        if (previous == null) {
+            // The binding was evicted while its request was running; the slot may belong to another session now
+            return;
+        }
+
+        List<ChatMessage> trimmed = new ArrayList<>(messages.size());
+        long chars = 0;
+        for (ChatMessage message : messages) {
+            ChatMessage stored = trimToolResult(message);
+            trimmed.add(stored);
+            chars += sizeOf(stored);
+        }
+
+        int slot = previous.memoryId.slot();
+        totalChars += chars - previous.chars;
+        sessions.put(slot, new Session(previous.memoryId, List.copyOf(trimmed), chars, System.currentTimeMillis()));
+        evictOverflow(slot);
+    }
+
+    @Override
+    public synchronized void deleteMessages(Object memoryId) {
+        if (owner(memoryId) != null) {
+            remove(((SessionMemoryId) memoryId).slot());
+        }
+    }
+
+    /**
+     * Drops all sessions that have been idle longer than the TTL.
+     */
+    @Scheduled(fixedDelayString = "${chat.memory.eviction-interval:60000}")
+    public synchronized void evictIdleSessions() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Integer, Session>> it = sessions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Session> entry = it.next();
+            if (isExpired(entry.getValue(), now)) {
+                release(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @return Number of sessions currently held.
+     */
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    private void evictOverflow(Integer currentSlot) {
+        Iterator<Map.Entry<Integer, Session>> it = sessions.entrySet().iterator();
+        while (totalChars > maxTotalChars && it.hasNext()) {
+            Map.Entry<Integer, Session> eldest = it.next();
+            if (eldest.getKey().equals(currentSlot)) {
+                continue;
+            }
+            release(eldest.getKey(), eldest.getValue());
+            it.remove();
+        }
+    }
+
+    private void remove(Integer slot) {
+        Session previous = sessions.remove(slot);
+        if (previous != null) {
+            release(slot, previous);
+        }
+    }
+
+    private void release(Integer slot, Session session) {
+        totalChars -= session.chars;
+        slotsBySession.remove(session.memoryId.sessionId(), slot);
+        freeSlots.add(slot);
+        releaseListeners.forEach(listener -> listener.accept(session.memoryId));
+    }
+
+    /**
+     * @return The session currently bound under this exact id, or null if the
+     *         id is unknown or its binding has been retired.
+     */
+    private Session owner(Object memoryId) {
+        if (!(memoryId instanceof SessionMemoryId id)) {
+            return null;
+        }
+        Session session = sessions.get(id.slot());
+        return session != null && session.memoryId.equals(id) ? session : null;
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.lastAccess > idleTtlMillis;
+    }
+
+    private ChatMessage trimToolResult(ChatMessage message) {
+        if (message instanceof ToolExecutionResultMessage result && result.text().length() > maxToolResultChars) {
+            String truncated = result.text().substring(0, maxToolResultChars) + TRUNCATION_MARKER;
+            return ToolExecutionResultMessage.from(result.id(), result.toolName(), truncated);
+        }
+        return message;
+    }
+
+    private static long sizeOf(ChatMessage message) {
+        return Objects.toString(message.text(), "").length();
+    }
+
+    private static final class Session {
+        private final SessionMemoryId memoryId;
+        private final List<ChatMessage> messages;
+        private final long chars;
+        private long lastAccess;
+
+        Session(SessionMemoryId memoryId, List<ChatMessage> messages, long chars, long lastAccess) {
+            this.memoryId = memoryId;
+            this.messages = messages;
+            this.chars = chars;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
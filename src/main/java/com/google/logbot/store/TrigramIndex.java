@@ -0,0 +1,552 @@
+package com.google.logbot.store;
+
+import com.google.logbot.model.LogEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over the raw text of ingested log entries, partitioned by day.
+ * <p>
+ * Maps every three-character sequence of an entry's (lower-cased) full log
+ * to the sorted ids of the entries containing it. A literal of three or more
+ * characters can only occur in entries holding all of its trigrams, so
+ * intersecting posting lists narrows a grep to a small candidate set that is
+ * then verified against the real pattern. Entries are indexed by the parsers
+ * right after each batch is saved.
+ * </p>
+ * <p>
+ * Each day partition collects new entries in memory and writes them out as an
+ * immutable, memory-mapped segment file once {@code grep.index.segment-entries}
+ * entries have accumulated. Posting lists are stored as varint-encoded id
+ * deltas, both in memory and on disk. Retention drops a day's segments
+ * together with its log partition. The index is process-local: segment files
+ * left by a previous run are deleted at startup.
+ * </p>
+ */
+@Component
+public class TrigramIndex {
+
+    private static final String FILE_PREFIX = "trigram-";
+    private static final String FILE_SUFFIX = ".tri";
+    private static final DateTimeFormatter SUFFIX_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /** Key of the posting list holding every id of a segment; trigram keys are non-negative. */
+    private static final long ALL_IDS = -1;
+    private static final long[] EMPTY = new long[0];
+
+    private final Path directory;
+    private final int segmentEntries;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<LocalDate, DayIndex> days = new TreeMap<>();
+
+    public TrigramIndex(
+            @Value("${grep.index.directory:${java.io.tmpdir}/log-bot-trigrams}") String directory,
+            @Value("${grep.index.segment-entries:50000}") int segmentEntries) {
+        this.directory = Path.of(directory);
+        this.segmentEntries = Math.max(segmentEntries, 1);
+        deleteSegmentFiles();
+    }
+
+    /**
+     * Indexes a batch of saved entries. Entries without an id or partition day
+     * are skipped.
+     *
+     * @param entries The entries, after they have been persisted.
+     */
+    public void addAll(List<LogEntry> entries) {
+        // Group by day and build one sorted run per trigram, outside the lock
+        Map<LocalDate, List<LogEntry>> byDay = new HashMap<>();
+        for (LogEntry entry : entries) {
+            if (entry.getId() != null && entry.getPartitionDay() != null && textOf(entry) != null) {
+                byDay.computeIfAbsent(entry.getPartitionDay(), day -> new ArrayList<>()).add(entry);
+            }
+        }
+        Map<LocalDate, Map<Long, LongRun>> runsByDay = new HashMap<>();
+        byDay.forEach((day, dayEntries) -> runsByDay.put(day, runs(dayEntries)));
+
+        lock.writeLock().lock();
+        try {
+            runsByDay.forEach((day, runs) -> {
+                DayIndex index = days.computeIfAbsent(day, DayIndex::new);
+                index.tail.append(runs, byDay.get(day).size());
+                if (index.tail.entries >= segmentEntries) {
+                    index.flush();
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Evaluates a query against the index.
+     *
+     * @param query The literals a matching entry must contain.
+     * @return Sorted ids of candidate entries.
+     */
+    public long[] candidates(TrigramQuery query) {
+        lock.readLock().lock();
+        try {
+            // Every entry lives in exactly one segment, so per-segment results are disjoint
+            List<long[]> parts = new ArrayList<>();
+            int total = 0;
+            for (DayIndex day : days.values()) {
+                for (Segment segment : day.segments()) {
+                    long[] ids = evaluate(query, segment);
+                    ids = ids != null ? ids : segment.postings(ALL_IDS);
+                    parts.add(ids);
+                    total += ids.length;
+                }
+            }
+
+            long[] result = new long[total];
+            int n = 0;
+            for (long[] ids : parts) {
+                System.arraycopy(ids, 0, result, n, ids.length);
+                n += ids.length;
+            }
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed entries.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return days.values().stream().mapToInt(DayIndex::entries).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The indexed day partitions, oldest first.
+     */
+    public NavigableSet<LocalDate> partitions() {
+        lock.readLock().lock();
+        try {
+            return new TreeSet<>(days.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a day from the index and deletes its segment files.
+     *
+     * @param day The partition day.
+     */
+    public void dropPartition(LocalDate day) {
+        lock.writeLock().lock();
+        try {
+            DayIndex index = days.remove(day);
+            if (index != null) {
+                for (DiskSegment segment : index.disk) {
+                    Files.deleteIfExists(segment.file);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Sorted candidate ids, or null if the query does not constrain
+     *         the result.
+     */
+    private static long[] evaluate(TrigramQuery query, Segment segment) {
+        return switch (query) {
+            case TrigramQuery.Any any -> null;
+            case TrigramQuery.Literal literal -> evaluateLiteral(literal.text().toLowerCase(Locale.ROOT), segment);
+            case TrigramQuery.AllOf allOf -> {
+                long[] result = null;
+                for (TrigramQuery part : allOf.parts()) {
+                    long[] ids = evaluate(part, segment);
+                    if (ids != null) {
+                        result = result == null ? ids : intersect(result, ids);
+                    }
+                }
+                yield result;
+            }
+            case TrigramQuery.AnyOf anyOf -> {
+                long[] result = EMPTY;
+                for (TrigramQuery part : anyOf.parts()) {
+                    long[] ids = evaluate(part, segment);
+                    if (ids == null) {
+                        yield null;
+                    }
+                    result = union(result, ids);
+                }
+                yield result;
+            }
+        };
+    }
+
+    private static long[] evaluateLiteral(String text, Segment segment) {
+        if (text.length() < 3) {
+            return null;
+        }
+        Set<Long> trigrams = new HashSet<>();
+        collectTrigrams(text, trigrams);
+
+        // Decode and intersect the shortest lists first
+        List<Long> keys = new ArrayList<>(trigrams);
+        int[] counts = new int[keys.size()];
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            counts[i] = segment.count(keys.get(i));
+            if (counts[i] == 0) {
+                return EMPTY;
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> counts[i]));
+
+        long[] result = segment.postings(keys.get(order[0]));
+        for (int i = 1; i < order.length && result.length > 0; i++) {
+            result = intersect(result, segment.postings(keys.get(order[i])));
+        }
+        return result;
+    }
+
+    private static Map<Long, LongRun> runs(List<LogEntry> entries) {
+        // Entries in id order give every trigram an ascending run
+        entries.sort(Comparator.comparing(LogEntry::getId));
+        Map<Long, LongRun> runs = new HashMap<>();
+        LongRun all = new LongRun();
+        runs.put(ALL_IDS, all);
+        Set<Long> trigrams = new HashSet<>();
+        for (LogEntry entry : entries) {
+            long id = entry.getId();
+            all.add(id);
+            trigrams.clear();
+            collectTrigrams(textOf(entry).toLowerCase(Locale.ROOT), trigrams);
+            for (Long trigram : trigrams) {
+                runs.computeIfAbsent(trigram, key -> new LongRun()).add(id);
+            }
+        }
+        return runs;
+    }
+
+    private static String textOf(LogEntry entry) {
+        return entry.getFullLog() != null ? entry.getFullLog() : entry.getMessage();
+    }
+
+    private static void collectTrigrams(String text, Set<Long> target) {
+        for (int i = 0; i + 2 < text.length(); i++) {
+            target.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] out = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                out[n++] = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int writeVarint(byte[] target, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        target[position++] = (byte) value;
+        return position;
+    }
+
+    private static long[] decode(ByteBuffer buffer, int position, int count) {
+        long[] ids = new long[count];
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += delta;
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    private void deleteSegmentFiles() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Posting lists of one segment, keyed by trigram. */
+    private interface Segment {
+
+        /** @return Number of ids in a posting list, 0 if absent. */
+        int count(long key);
+
+        /** @return The sorted ids of a posting list, empty if absent. */
+        long[] postings(long key);
+    }
+
+    /** The segments of one day: sealed segment files plus the in-memory tail. */
+    private final class DayIndex {
+        private final LocalDate day;
+        private final List<DiskSegment> disk = new ArrayList<>();
+        private MemorySegment tail = new MemorySegment();
+
+        DayIndex(LocalDate day) {
+            this.day = day;
+        }
+
+        List<Segment> segments() {
+            List<Segment> segments = new ArrayList<>(disk);
+            segments.add(tail);
+            return segments;
+        }
+
+        int entries() {
+            return disk.stream().mapToInt(segment -> segment.entries).sum() + tail.entries;
+        }
+
+        void flush() {
+            Path file = directory.resolve(FILE_PREFIX + day.format(SUFFIX_FORMATTER) + "-" + disk.size() + FILE_SUFFIX);
+            tail.writeTo(file);
+            disk.add(new DiskSegment(file));
+            tail = new MemorySegment();
+        }
+    }
+
+    /**
+     * Segment collecting new entries. Each batch arrives as one sorted run per
+     * trigram; a run that starts after the end of its list is appended, and one
+     * that overlaps (concurrent ingestion can interleave ids) is merged in.
+     */
+    private static final class MemorySegment implements Segment {
+        private final Map<Long, PostingsBuilder> postings = new HashMap<>();
+        private int entries;
+
+        void append(Map<Long, LongRun> runs, int entryCount) {
+            runs.forEach((key, run) -> postings.computeIfAbsent(key, k -> new PostingsBuilder()).append(run));
+            entries += entryCount;
+        }
+
+        @Override
+        public int count(long key) {
+            PostingsBuilder list = postings.get(key);
+            return list != null ? list.count : 0;
+        }
+
+        @Override
+        public long[] postings(long key) {
+            PostingsBuilder list = postings.get(key);
+            return list != null ? list.decode() : EMPTY;
+        }
+
+        /**
+         * Writes the segment file: trigram and entry counts, the sorted keys,
+         * each list's id count and offset, then the encoded lists.
+         */
+        void writeTo(Path file) {
+            long[] keys = postings.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                out.writeInt(keys.length);
+                out.writeInt(entries);
+                for (long key : keys) {
+                    out.writeLong(key);
+                }
+                for (long key : keys) {
+                    out.writeInt(postings.get(key).count);
+                }
+                int offset = 0;
+                for (long key : keys) {
+                    out.writeInt(offset);
+                    offset += postings.get(key).length;
+                }
+                for (long key : keys) {
+                    PostingsBuilder list = postings.get(key);
+                    out.write(list.bytes, 0, list.length);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /** Sealed segment read from a memory-mapped file. */
+    private static final class DiskSegment implements Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final int keys;
+        private final int entries;
+        private final int countsStart;
+        private final int offsetsStart;
+        private final int postingsStart;
+
+        DiskSegment(Path file) {
+            this.file = file;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            this.keys = buffer.getInt(0);
+            this.entries = buffer.getInt(Integer.BYTES);
+            this.countsStart = 2 * Integer.BYTES + keys * Long.BYTES;
+            this.offsetsStart = countsStart + keys * Integer.BYTES;
+            this.postingsStart = offsetsStart + keys * Integer.BYTES;
+        }
+
+        @Override
+        public int count(long key) {
+            int index = find(key);
+            return index >= 0 ? buffer.getInt(countsStart + index * Integer.BYTES) : 0;
+        }
+
+        @Override
+        public long[] postings(long key) {
+            int index = find(key);
+            if (index < 0) {
+                return EMPTY;
+            }
+            return decode(buffer, postingsStart + buffer.getInt(offsetsStart + index * Integer.BYTES),
+                    buffer.getInt(countsStart + index * Integer.BYTES));
+        }
+
+        private int find(long key) {
+            int low = 0;
+            int high = keys - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long value = buffer.getLong(2 * Integer.BYTES + mid * Long.BYTES);
+                if (value < key) {
+                    low = mid + 1;
+                } else if (value > key) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /** Posting list encoded as varint deltas of ascending ids. */
+    private static final class PostingsBuilder {
+        private byte[] bytes = new byte[8];
+        private int length;
+        private int count;
+        private long last;
+
+        void append(LongRun run) {
+            if (count > 0 && run.ids[0] <= last) {
+                long[] merged = union(decode(), Arrays.copyOf(run.ids, run.size));
+                length = 0;
+                count = 0;
+                last = 0;
+                appendSorted(merged, merged.length);
+            } else {
+                appendSorted(run.ids, run.size);
+            }
+        }
+
+        long[] decode() {
+            return TrigramIndex.decode(ByteBuffer.wrap(bytes, 0, length), 0, count);
+        }
+
+        private void appendSorted(long[] ids, int size) {
+            for (int i = 0; i < size; i++) {
+                if (length + 10 > bytes.length) {
+                    bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 10));
+                }
+                length = writeVarint(bytes, length, ids[i] - last);
+                last = ids[i];
+                count++;
+            }
+        }
+    }
+
+    /** Growable run of ascending ids built for one batch. */
+    private static final class LongRun {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.google.logbot.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Boolean combination of literals a matching block must contain.
+ * <p>
+ * Evaluated by {@link TrigramIndex} to narrow the blocks a grep has to check.
+ * A query is only a necessary condition: every block matching the original
+ * pattern satisfies it, but candidates still have to be verified.
+ * </p>
+ */
+public sealed interface TrigramQuery {
+
+    /** Matches every block; nothing can be ruled out. */
+    record Any() implements TrigramQuery {
+    }
+
+    /** The block contains this text (compared case-insensitively). */
+    record Literal(String text) implements TrigramQuery {
+    }
+
+    /** The block satisfies every part. */
+    record AllOf(List<TrigramQuery> parts) implements TrigramQuery {
+    }
+
+    /** The block satisfies at least one part. */
+    record AnyOf(List<TrigramQuery> parts) implements TrigramQuery {
+    }
+
+    /**
+     * Derives the literals required by a regular expression. Top-level
+     * alternatives become an {@link AnyOf}; within an alternative, runs of plain
+     * characters outside groups and classes become {@link Literal}s. Constructs
+     * that are not understood make the query {@link Any}.
+     *
+     * @param regex A {@link java.util.regex.Pattern} expression.
+     * @return The query.
+     */
+    static TrigramQuery forRegex(String regex) {
+        // Extended mode ignores whitespace in the pattern, so literal runs cannot be trusted
+        if (Pattern.compile("\\(\\?[a-zA-Z]*x").matcher(regex).find()) {
+            return new Any();
+        }
+
+        List<TrigramQuery> branches = new ArrayList<>();
+        List<TrigramQuery> literals = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            switch (c) {
+                case '\\' -> {
+                    if (i + 1 >= regex.length()) {
+                        return new Any();
+                    }
+                    char escaped = regex.charAt(i + 1);
+                    if (escaped == 'Q') {
+                        int end = regex.indexOf("\\E", i + 2);
+                        run.append(end < 0 ? regex.substring(i + 2) : regex.substring(i + 2, end));
+                        i = end < 0 ? regex.length() : end + 2;
+                        i = applyQuantifier(regex, i, run, literals);
+                    } else if (Character.isLetterOrDigit(escaped)) {
+                        // Classes, anchors and single control characters; others may consume more input
+                        if ("dDwWsSbBAzZGRXhHvVtnrfea".indexOf(escaped) < 0) {
+                            return new Any();
+                        }
+                        endRun(run, literals);
+                        i += 2;
+                    } else {
+                        run.append(escaped);
+                        i = applyQuantifier(regex, i + 2, run, literals);
+                    }
+                }
+                case '[' -> {
+                    endRun(run, literals);
+                    i = skipClass(regex, i);
+                }
+                case '(' -> {
+                    endRun(run, literals);
+                    i = skipGroup(regex, i);
+                }
+                case '{' -> {
+                    endRun(run, literals);
+                    int end = regex.indexOf('}', i);
+                    i = end < 0 ? regex.length() : end + 1;
+                }
+                case '|' -> {
+                    endRun(run, literals);
+                    branches.add(new AllOf(literals));
+                    literals = new ArrayList<>();
+                    i++;
+                }
+                case '.', '^', '$', '?', '*', '+', ')' -> {
+                    endRun(run, literals);
+                    i++;
+                }
+                default -> {
+                    run.append(c);
+                    i = applyQuantifier(regex, i + 1, run, literals);
+                }
+            }
+        }
+        endRun(run, literals);
+        branches.add(new AllOf(literals));
+        return branches.size() == 1 ? branches.get(0) : new AnyOf(branches);
+    }
+
+    /**
+     * Handles a quantifier following the last appended character: optional
+     * characters are removed from the run, repeated ones end it.
+     */
+    private static int applyQuantifier(String regex, int next, StringBuilder run, List<TrigramQuery> literals) {
+        if (next >= regex.length()) {
+            return next;
+        }
+        char q = regex.charAt(next);
+        if (q == '?' || q == '*' || q == '{') {
+            run.setLength(Math.max(run.length() - 1, 0));
+            endRun(run, literals);
+        } else if (q == '+') {
+            endRun(run, literals);
+        }
+        return next;
+    }
+
+    private static void endRun(StringBuilder run, List<TrigramQuery> literals) {
+        if (run.length() > 0) {
+            literals.add(new Literal(run.toString()));
+            run.setLength(0);
+        }
+    }
+
+    private static int skipClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        int depth = 1;
+        while (i < regex.length() && depth > 0) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipGroup(String regex, int start) {
+        int i = start + 1;
+        int depth = 1;
+        while (i < regex.length() && depth > 0) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                i = skipClass(regex, i);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,65 @@
+package com.google.logbot.store;
+
+import java.util.List;
+
+/**
+ * Lossy fixed-size encoding of embedding vectors.
+ * <p>
+ * A codec turns each vector into a compact byte code and scores a query
+ * against codes without decoding them. Codecs that learn their parameters
+ * from data (e.g. product quantization) report {@link #isTrained()} as false
+ * until {@link #train(List)} has been called.
+ * </p>
+ */
+public interface VectorCodec {
+
+    /**
+     * @return Size in bytes of one encoded vector.
+     */
+    int codeSize();
+
+    /**
+     * @return Whether the codec can encode yet.
+     */
+    default boolean isTrained() {
+        return true;
+    }
+
+    /**
+     * @return Number of vectors to collect before calling {@link #train(List)}.
+     */
+    default int trainingSize() {
+        return 0;
+    }
+
+    /**
+     * Learns the codec parameters from a sample of vectors.
+     *
+     * @param sample The training vectors.
+     */
+    default void train(List<float[]> sample) {
+    }
+
+    /**
+     * Encodes a vector.
+     *
+     * @param vector The vector to encode.
+     * @param target Destination array.
+     * @param offset Position of the code in {@code target}.
+     */
+    void encode(float[] vector, byte[] target, int offset);
+
+    /**
+     * Prepares scoring of codes against a query.
+     *
+     * @param query The query vector.
+     * @return A scorer approximating the dot product of the query with a code.
+     */
+    Scorer scorer(float[] query);
+
+    /** Approximate dot product between a prepared query and an encoded vector. */
+    @FunctionalInterface
+    interface Scorer {
+        float dot(byte[] codes, int offset);
+    }
+}
@@ -0,0 +1,63 @@
+package com.google.logbot.loadtest;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cheap deterministic embedding model for load tests.
+ * <p>
+ * Hashes tokens into a fixed number of dimensions (feature hashing) and
+ * normalizes the result. Lets the harness measure ingestion throughput of the
+ * pipeline itself without the ONNX model dominating the numbers.
+ * </p>
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private final int dimension;
+
+    public HashingEmbeddingModel(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public Response<List<Embedding>> embedAll(List<TextSegment> segments) {
+        List<Embedding> embeddings = new ArrayList<>(segments.size());
+        for (TextSegment segment : segments) {
+            embeddings.add(Embedding.from(embed(segment.text())));
+        }
+        return Response.from(embeddings);
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    private float[] embed(String text) {
+        float[] vector = new float[dimension];
+        for (String token : text.toLowerCase().split("[^a-z0-9]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            int hash = token.hashCode();
+            vector[Math.floorMod(hash, dimension)] += (hash & 0x4000_0000) == 0 ? 1f : -1f;
+        }
+
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+}
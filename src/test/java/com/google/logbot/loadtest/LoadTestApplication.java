@@ -0,0 +1,21 @@
+package com.google.logbot.loadtest;
+
+import com.google.logbot.LogBotApplication;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Starts the application from the test classpath with the "loadtest" profile,
+ * which activates {@link LoadTestConfiguration} and {@link ThroughputHarness}.
+ * <p>
+ * The load-test code is not part of the production jar; run it with
+ * {@code mvn spring-boot:test-run}.
+ * </p>
+ */
+public class LoadTestApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.from(LogBotApplication::main)
+                .withAdditionalProfiles("loadtest")
+                .run(args);
+    }
+}
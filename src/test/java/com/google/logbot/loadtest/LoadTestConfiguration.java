@@ -0,0 +1,41 @@
+package com.google.logbot.loadtest;
+
+import com.google.logbot.store.PartitionedEmbeddingStore;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Local stand-ins for external services, active under the "loadtest" profile.
+ * <p>
+ * Replaces OpenAI with {@link StubChatLanguageModel} and ChromaDB with
+ * in-memory day partitions so the throughput harness runs without network
+ * dependencies. The ONNX embedding model can optionally be replaced as well.
+ * </p>
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfiguration {
+
+    @Bean
+    public ChatLanguageModel chatLanguageModel() {
+        return new StubChatLanguageModel();
+    }
+
+    @Bean
+    public PartitionedEmbeddingStore embeddingStore() {
+        return new PartitionedEmbeddingStore(day -> new InMemoryEmbeddingStore<>());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "loadtest.stub-embeddings", havingValue = "true")
+    public EmbeddingModel hashingEmbeddingModel() {
+        return new HashingEmbeddingModel(384);
+    }
+}
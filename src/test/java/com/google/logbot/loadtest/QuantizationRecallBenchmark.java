@@ -0,0 +1,192 @@
+package com.google.logbot.loadtest;
+
+import com.google.logbot.store.Int8VectorCodec;
+import com.google.logbot.store.PartitionedEmbeddingStore;
+import com.google.logbot.store.ProductQuantizationCodec;
+import com.google.logbot.store.QuantizedEmbeddingStore;
+import com.google.logbot.store.VectorCodec;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.onnx.allminilml6v2.AllMiniLmL6V2EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Measures recall and per-row footprint of the quantized vector stores.
+ * <p>
+ * Embeds lines of a synthetic banking log, holds some back as queries, and
+ * compares the top-K of each codec / re-rank setting against an exact
+ * brute-force search. A result counts as a hit when its exact score reaches
+ * the K-th best exact score, so ties between near-identical log lines do not
+ * count as misses. Every row carries its log line and typical metadata, so the
+ * reported heap and disk bytes per row cover everything the store keeps.
+ * </p>
+ */
+public class QuantizationRecallBenchmark {
+
+    private static final int DIMENSION = 384;
+    private static final int[] RERANK_FACTORS = { 1, 4, 16 };
+
+    private final List<float[]> corpus;
+    private final List<String> corpusLines;
+    private final List<float[]> queries;
+    private final int k;
+
+    public QuantizationRecallBenchmark(List<float[]> corpus, List<String> corpusLines, List<float[]> queries,
+            int k) {
+        this.corpus = corpus;
+        this.corpusLines = corpusLines;
+        this.queries = queries;
+        this.k = k;
+    }
+
+    /**
+     * Runs one configuration and prints a result row.
+     *
+     * @param name         Label of the codec.
+     * @param codecFactory Creates a fresh codec.
+     * @param rerankFactor Candidates re-ranked with exact vectors, per result.
+     * @param kthBest      Exact K-th best cosine similarity of each query.
+     */
+    public void run(String name, Supplier<VectorCodec> codecFactory, int rerankFactor, double[] kthBest)
+            throws IOException {
+        Path vectorFile = Files.createTempFile("recall-benchmark", ".f32");
+        Path rowFile = Files.createTempFile("recall-benchmark", ".rows");
+        try (QuantizedEmbeddingStore store = new QuantizedEmbeddingStore(codecFactory.get(), DIMENSION,
+                rerankFactor, vectorFile, rowFile)) {
+            for (int from = 0; from < corpus.size(); from += 1024) {
+                List<Embedding> batch = new ArrayList<>();
+                List<TextSegment> segments = new ArrayList<>();
+                for (int i = from; i < Math.min(from + 1024, corpus.size()); i++) {
+                    batch.add(Embedding.from(corpus.get(i)));
+                    segments.add(segment(corpusLines.get(i)));
+                }
+                store.addAll(batch, segments);
+            }
+
+            long hits = 0;
+            long started = System.nanoTime();
+            for (int q = 0; q < queries.size(); q++) {
+                List<EmbeddingMatch<TextSegment>> matches = store.search(EmbeddingSearchRequest.builder()
+                        .queryEmbedding(Embedding.from(queries.get(q)))
+                        .maxResults(k)
+                        .build()).matches();
+                for (EmbeddingMatch<TextSegment> match : matches) {
+                    if (cosine(queries.get(q), match.embedding().vector()) >= kthBest[q] - 1e-6) {
+                        hits++;
+                    }
+                }
+            }
+            double millisPerQuery = (System.nanoTime() - started) / 1e6 / queries.size();
+
+            double heapPerRow = (double) store.memoryBytes() / store.size();
+            double diskPerRow = (double) store.diskBytes() / store.size();
+            System.out.printf("%-6s rerank x%-3d %8.1f B/row heap %8.1f B/row disk  recall@%d %.3f  %7.2f ms/query\n",
+                    name, rerankFactor, heapPerRow, diskPerRow, k, (double) hits / ((long) queries.size() * k),
+                    millisPerQuery);
+        }
+    }
+
+    /**
+     * @return The exact K-th best cosine similarity of each query.
+     */
+    public double[] exactKthBest() {
+        double[] kthBest = new double[queries.size()];
+        for (int q = 0; q < queries.size(); q++) {
+            double[] scores = new double[corpus.size()];
+            for (int i = 0; i < corpus.size(); i++) {
+                scores[i] = cosine(queries.get(q), corpus.get(i));
+            }
+            Arrays.sort(scores);
+            kthBest[q] = scores[Math.max(scores.length - k, 0)];
+        }
+        return kthBest;
+    }
+
+    /**
+     * @return A segment with metadata shaped like the ingested log lines.
+     */
+    private static TextSegment segment(String line) {
+        Metadata metadata = Metadata.from("source_file", "recall-benchmark.log");
+        metadata.put("log_type", "General");
+        metadata.put(PartitionedEmbeddingStore.PARTITION_KEY, "2025-12-01");
+        return TextSegment.from(line, metadata);
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+    }
+
+    private static List<float[]> embedLines(List<String> lines, EmbeddingModel model) {
+        List<float[]> vectors = new ArrayList<>(lines.size());
+        for (int from = 0; from < lines.size(); from += 256) {
+            List<TextSegment> batch = lines.subList(from, Math.min(from + 256, lines.size())).stream()
+                    .map(TextSegment::from)
+                    .toList();
+            for (Embedding embedding : model.embedAll(batch).content()) {
+                vectors.add(embedding.vector());
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * Standalone entry point.
+     * Usage: {@code QuantizationRecallBenchmark [vectors] [queries] [k] [hashing|onnx]}
+     */
+    public static void main(String[] args) throws IOException {
+        int vectorCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        boolean onnx = args.length > 3 && args[3].equals("onnx");
+
+        Path logFile = Files.createTempFile("recall-benchmark", ".log");
+        List<String> lines;
+        try {
+            new SyntheticLogGenerator(42).generateBankingLog(logFile, (long) (vectorCount + queryCount) * 200,
+                    LocalDateTime.of(2025, 12, 1, 0, 0));
+            try (Stream<String> stream = Files.lines(logFile)) {
+                lines = stream.filter(line -> !line.isBlank()).limit(vectorCount + queryCount).toList();
+            }
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+
+        EmbeddingModel model = onnx ? new AllMiniLmL6V2EmbeddingModel() : new HashingEmbeddingModel(DIMENSION);
+        List<float[]> vectors = embedLines(lines, model);
+        int split = Math.max(vectors.size() - queryCount, 0);
+        QuantizationRecallBenchmark benchmark = new QuantizationRecallBenchmark(vectors.subList(0, split),
+                lines.subList(0, split), vectors.subList(split, vectors.size()), k);
+
+        System.out.printf("%d rows, %d queries, %s embeddings, full precision %d B/vector\n", split,
+                vectors.size() - split, onnx ? "ONNX" : "hashing", DIMENSION * Float.BYTES);
+        double[] kthBest = benchmark.exactKthBest();
+        for (int rerankFactor : RERANK_FACTORS) {
+            benchmark.run("int8", () -> new Int8VectorCodec(DIMENSION), rerankFactor, kthBest);
+        }
+        for (int rerankFactor : RERANK_FACTORS) {
+            benchmark.run("pq", () -> new ProductQuantizationCodec(DIMENSION, 96, 4096, 8, 42), rerankFactor,
+                    kthBest);
+        }
+    }
+}
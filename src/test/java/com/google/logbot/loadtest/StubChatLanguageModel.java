@@ -0,0 +1,29 @@
+package com.google.logbot.loadtest;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+
+/**
+ * Local stand-in for the OpenAI chat model used by the throughput harness.
+ * <p>
+ * Answers immediately without calling any tools, so measured query latency
+ * covers only the application's own work (routing, RAG retrieval, memory).
+ * </p>
+ */
+public class StubChatLanguageModel implements ChatLanguageModel {
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return Response.from(AiMessage.from("Stub answer based on " + messages.size() + " messages."));
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        return generate(messages);
+    }
+}
@@ -0,0 +1,210 @@
+package com.google.logbot.loadtest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Seeded generator for production-scale synthetic banking data.
+ * <p>
+ * Writes timestamp-header application logs (with multi-line stack traces and
+ * skewed service / error-code distributions) and ZT1030-format transaction
+ * error reports. The same seed always produces byte-identical output, so runs
+ * of the throughput harness are comparable.
+ * </p>
+ */
+public class SyntheticLogGenerator {
+
+    private static final DateTimeFormatter LOG_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final DateTimeFormatter REPORT_DATE = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private static final DateTimeFormatter REPORT_TIME = DateTimeFormatter.ofPattern("hh:mm");
+
+    private static final String[] SERVICES = {
+            "PaymentService", "TransferService", "CustomerService", "InterestService", "AccountService",
+            "CardService", "LoanService", "StatementService" };
+    /** Relative traffic per service, same order as {@link #SERVICES}. */
+    private static final int[] SERVICE_WEIGHTS = { 30, 20, 15, 10, 10, 8, 5, 2 };
+
+    private static final String[] ERROR_CODES = {
+            "PAY-PRC-1002", "SFTP-DROP-01", "CUST-VAL-ERR", "INT-CALC-FAIL", "ACC-LOCK-003", "CARD-AUTH-51",
+            "LOAN-SCHED-7", "STMT-GEN-404", "TXN-1001", "TXN-2002", "DB-POOL-EXH", "MQ-TIMEOUT-9" };
+    /** Zipf-like weights: a few codes dominate, a long tail is rare. */
+    private static final int[] ERROR_WEIGHTS = { 40, 20, 13, 10, 8, 6, 5, 4, 3, 3, 2, 1 };
+
+    private static final String[] EXCEPTIONS = {
+            "java.net.SocketTimeoutException: Connect timed out",
+            "java.lang.ArithmeticException: / by zero",
+            "java.sql.SQLTransientConnectionException: HikariPool-1 - Connection is not available",
+            "java.lang.IllegalStateException: Account is locked",
+            "java.io.IOException: Broken pipe",
+            "java.lang.NullPointerException: Cannot invoke \"String.length()\" because \"zip\" is null" };
+
+    private static final String[] FRAMES = {
+            "at java.net.PlainSocketImpl.socketConnect(Native Method)",
+            "at java.net.AbstractPlainSocketImpl.doConnect(AbstractPlainSocketImpl.java:350)",
+            "at com.bank.payment.Gateway.connect(Gateway.java:45)",
+            "at com.bank.payment.BatchProcessor.process(BatchProcessor.java:112)",
+            "at com.bank.interest.Calculator.calculate(Calculator.java:22)",
+            "at com.bank.interest.BatchJob.run(BatchJob.java:10)",
+            "at com.bank.customer.AddressValidator.validate(AddressValidator.java:78)",
+            "at com.bank.transfer.SftpClient.put(SftpClient.java:203)",
+            "at com.zaxxer.hikari.pool.HikariPool.getConnection(HikariPool.java:181)",
+            "at java.base/java.lang.Thread.run(Thread.java:1583)" };
+
+    private static final String[] REPORT_ERRORS = {
+            "000201S EMPTY ACTIVE MASTER DATABASE",
+            "000140S DUPLICATE 100 TRANSACTION - ROLLED UP",
+            "000205S ACCOUNT NOT ON ACTIVE MASTER",
+            "000222S NEW ACCOUNT TRANSACTION FOR ACCT ALREADY ACTIVE",
+            "000310S INVALID CYCLE DATE",
+            "000415S PAYMENT AMOUNT EXCEEDS BALANCE" };
+    private static final int[] REPORT_ERROR_WEIGHTS = { 35, 25, 20, 10, 6, 4 };
+
+    private static final String[] REPORT_TRANSACTIONS = { "NEW ACCT", "CUSTOM DATA", "CYCLE DATE", "PAYMENT" };
+
+    private final Random random;
+
+    public SyntheticLogGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Writes a timestamp-header application log of roughly the requested size.
+     * Timestamps advance monotonically from {@code start} so the data spans
+     * several day partitions at larger sizes.
+     *
+     * @param file        Target file.
+     * @param targetBytes Approximate size to produce.
+     * @param start       Timestamp of the first entry.
+     * @return Number of log entries (blocks) written.
+     */
+    public long generateBankingLog(Path file, long targetBytes, LocalDateTime start) throws IOException {
+        long written = 0;
+        long entries = 0;
+        LocalDateTime timestamp = start;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            while (written < targetBytes) {
+                timestamp = timestamp.plusNanos((1 + random.nextInt(400)) * 1_000_000L);
+                String service = pick(SERVICES, SERVICE_WEIGHTS);
+                int roll = random.nextInt(100);
+
+                StringBuilder block = new StringBuilder(256);
+                block.append(timestamp.format(LOG_TIMESTAMP));
+                if (roll < 12) {
+                    String errorCode = pick(ERROR_CODES, ERROR_WEIGHTS);
+                    block.append(" ERROR [").append(service).append("] [").append(errorCode).append("] ")
+                            .append("Operation failed for reference #").append(100000 + random.nextInt(900000))
+                            .append(". Upstream returned an error.\n");
+                    // Roughly 40% of errors carry a stack trace of 3-12 frames
+                    if (random.nextInt(10) < 4) {
+                        block.append(EXCEPTIONS[random.nextInt(EXCEPTIONS.length)]).append('\n');
+                        int frames = 3 + random.nextInt(10);
+                        for (int i = 0; i < frames; i++) {
+                            block.append("    ").append(FRAMES[random.nextInt(FRAMES.length)]).append('\n');
+                        }
+                    }
+                } else if (roll < 20) {
+                    block.append(" WARN [").append(service).append("] [").append(service.substring(0, 3).toUpperCase())
+                            .append("-WARN-").append(random.nextInt(20)).append("] Slow response: ")
+                            .append(500 + random.nextInt(4500)).append(" ms\n");
+                } else {
+                    block.append(" INFO [").append(service).append("] [").append(service.substring(0, 3).toUpperCase())
+                            .append("-OK-").append(random.nextInt(50)).append("] Processed request for account ")
+                            .append(9_900_000_000L + random.nextInt(100_000_000)).append('\n');
+                }
+
+                writer.write(block.toString());
+                written += block.length();
+                entries++;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Writes a ZT1030 "TRANSACTION DATA/ERROR MESSAGE REPORT" of roughly the
+     * requested size, one page per location.
+     *
+     * @param file        Target file.
+     * @param targetBytes Approximate size to produce.
+     * @param reportTime  Report date and time printed in every page header.
+     * @return Number of error lines written.
+     */
+    public long generateTransactionReport(Path file, long targetBytes, LocalDateTime reportTime) throws IOException {
+        long written = 0;
+        long errors = 0;
+        String date = reportTime.format(REPORT_DATE);
+        String time = reportTime.format(REPORT_TIME) + (reportTime.getHour() < 12 ? "A" : "P");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            int page = 1;
+            while (written < targetBytes) {
+                StringBuilder section = new StringBuilder(4096);
+                String location = String.format("%06d", 100000 + random.nextInt(900) * 10);
+                section.append(String.format("LOCATION: %s %-40sCOLLECTION DEPARTMENT\n", location, "Branch " + location))
+                        .append("PROG ID: ZT360P00                          TITLE: TRANSACTION DATA/ERROR MESSAGE REPORT - DAILY\n")
+                        .append(String.format("RPT  ID: ZT1030     DATE: %s TIME: %s%84s%6d\n", date, time, "PAGE:", page++))
+                        .append('\n')
+                        .append("  ACCT/CUST PORT ID        TRANSACTION              TRANSACTION DATA\n")
+                        .append('\n');
+
+                int details = 1 + random.nextInt(40);
+                for (int i = 0; i < details; i++) {
+                    String account = String.format("%018d", random.nextLong(1_000_000_000_000L));
+                    String transaction = REPORT_TRANSACTIONS[random.nextInt(REPORT_TRANSACTIONS.length)];
+                    section.append(String.format("  %-23s%-25s%s%s\n", account, transaction, location,
+                            String.format("%044d", random.nextLong(1_000_000_000L))))
+                            .append("                           ERROR MESSAGE:           ")
+                            .append(pick(REPORT_ERRORS, REPORT_ERROR_WEIGHTS)).append('\n');
+                }
+                section.append('\n')
+                        .append(String.format("                           TOTAL DETAIL TRANSACTION ERRORS:%11d\n\n", details));
+
+                writer.write(section.toString());
+                written += section.length();
+                errors += details;
+            }
+        }
+        return errors;
+    }
+
+    private String pick(String[] values, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < values.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+
+    /**
+     * Standalone entry point.
+     * Usage: {@code SyntheticLogGenerator <outputDir> [logMb] [reportMb] [seed]}
+     */
+    public static void main(String[] args) throws IOException {
+        Path outputDir = Path.of(args.length > 0 ? args[0] : "target/synthetic_logs");
+        long logMb = args.length > 1 ? Long.parseLong(args[1]) : 1024;
+        long reportMb = args.length > 2 ? Long.parseLong(args[2]) : 128;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        Files.createDirectories(outputDir);
+        SyntheticLogGenerator generator = new SyntheticLogGenerator(seed);
+        long entries = generator.generateBankingLog(outputDir.resolve("synthetic_banking.log"),
+                logMb * 1024 * 1024, LocalDateTime.of(2025, 12, 1, 0, 0));
+        long errors = generator.generateTransactionReport(outputDir.resolve("synthetic_transaction_report.txt"),
+                reportMb * 1024 * 1024, LocalDateTime.of(2025, 12, 1, 13, 27));
+        System.out.printf("Wrote %d log entries and %d report errors to %s\n", entries, errors, outputDir);
+    }
+}
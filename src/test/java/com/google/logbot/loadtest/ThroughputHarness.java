@@ -0,0 +1,170 @@
+package com.google.logbot.loadtest;
+
+import com.google.logbot.repository.LogRepository;
+import com.google.logbot.service.LogIngestionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end throughput harness, active under the "loadtest" profile.
+ * <p>
+ * Generates seeded synthetic data, drives it through
+ * {@link LogIngestionService}, then fires questions at {@code /api/logs/query}
+ * over HTTP. Reports ingest MB/s and rows/s, p50/p99 query latency and the
+ * peak heap observed while running.
+ * </p>
+ */
+@Component
+@Profile("loadtest")
+public class ThroughputHarness implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThroughputHarness.class);
+
+    private static final List<String> QUESTIONS = List.of(
+            "Summarize errors",
+            "Why did the late fee calculation fail?",
+            "Show me details for SFTP-DROP-01",
+            "List ingested files",
+            "Are there payment gateway timeouts?");
+
+    private final LogIngestionService ingestionService;
+    private final LogRepository logRepository;
+    private final Environment environment;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${loadtest.output-dir:}")
+    private String outputDir;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.log-mb:256}")
+    private long logMb;
+
+    @Value("${loadtest.report-mb:32}")
+    private long reportMb;
+
+    @Value("${loadtest.warmup-queries:20}")
+    private int warmupQueries;
+
+    @Value("${loadtest.queries:200}")
+    private int queries;
+
+    @Value("${loadtest.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    public ThroughputHarness(LogIngestionService ingestionService, LogRepository logRepository,
+            Environment environment, ConfigurableApplicationContext context) {
+        this.ingestionService = ingestionService;
+        this.logRepository = logRepository;
+        this.environment = environment;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path dir = outputDir.isEmpty() ? Files.createTempDirectory("logbot-loadtest") : Path.of(outputDir);
+        Files.createDirectories(dir);
+
+        logger.info("Generating {} MB of logs and {} MB of reports (seed {}) in {}", logMb, reportMb, seed, dir);
+        SyntheticLogGenerator generator = new SyntheticLogGenerator(seed);
+        generator.generateBankingLog(dir.resolve("synthetic_banking.log"), logMb * 1024 * 1024,
+                LocalDateTime.of(2025, 12, 1, 0, 0));
+        generator.generateTransactionReport(dir.resolve("synthetic_transaction_report.txt"),
+                reportMb * 1024 * 1024, LocalDateTime.of(2025, 12, 1, 13, 27));
+        long bytes = totalSize(dir);
+
+        AtomicLong peakHeap = new AtomicLong();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 50, TimeUnit.MILLISECONDS);
+
+        try {
+            long rowsBefore = logRepository.count();
+            long ingestStart = System.nanoTime();
+            ingestionService.ingestLogs("file:" + dir.toAbsolutePath() + "/*.*");
+            double ingestSeconds = (System.nanoTime() - ingestStart) / 1e9;
+            long rows = logRepository.count() - rowsBefore;
+
+            long[] latencies = runQueries();
+
+            logger.info("==== Throughput report ====");
+            logger.info("Input:         {} MB in {}", String.format("%.1f", bytes / 1048576.0), dir);
+            logger.info("Ingest:        {} s, {} MB/s, {} rows/s ({} rows)",
+                    String.format("%.2f", ingestSeconds),
+                    String.format("%.2f", bytes / 1048576.0 / ingestSeconds),
+                    String.format("%.0f", rows / ingestSeconds), rows);
+            logger.info("Query latency: p50 {} ms, p99 {} ms over {} queries",
+                    String.format("%.2f", percentile(latencies, 0.50) / 1e6),
+                    String.format("%.2f", percentile(latencies, 0.99) / 1e6), latencies.length);
+            logger.info("Peak heap:     {} MB", peakHeap.get() / (1024 * 1024));
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        if (exitOnFinish) {
+            // Closing the context stops the web server, letting the JVM exit
+            SpringApplication.exit(context, () -> 0);
+        }
+    }
+
+    private long[] runQueries() {
+        RestClient client = RestClient.create("http://localhost:" + environment.getProperty("local.server.port"));
+        for (int i = 0; i < warmupQueries; i++) {
+            query(client, QUESTIONS.get(i % QUESTIONS.size()));
+        }
+
+        long[] latencies = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            long start = System.nanoTime();
+            query(client, QUESTIONS.get(i % QUESTIONS.size()));
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void query(RestClient client, String question) {
+        client.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/logs/query").queryParam("q", question).build())
+                .retrieve()
+                .body(String.class);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.ceil(p * sorted.length) - 1];
+    }
+
+    private static long totalSize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
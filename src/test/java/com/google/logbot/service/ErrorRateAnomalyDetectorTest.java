@@ -0,0 +1,133 @@
+package com.google.logbot.service;
+
+import com.google.logbot.model.ErrorSpike;
+import com.google.logbot.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorRateAnomalyDetectorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void steadyRateIsNotASpike() {
+        ErrorRateAnomalyDetector detector = detector(100);
+
+        for (int minute = 0; minute <= 10; minute++) {
+            record(detector, "PAY-PRC-1002", minute, 2);
+        }
+
+        assertThat(detector.getSpikes()).isEmpty();
+    }
+
+    @Test
+    void burstAboveTheBaselineIsASpike() {
+        ErrorRateAnomalyDetector detector = detector(100);
+        baseline(detector, "PAY-PRC-1002");
+
+        record(detector, "PAY-PRC-1002", 10, 20);
+
+        List<ErrorSpike> spikes = detector.getSpikes();
+        assertThat(spikes).hasSize(1);
+        ErrorSpike spike = spikes.get(0);
+        assertThat(spike.errorCode()).isEqualTo("PAY-PRC-1002");
+        assertThat(spike.bucketStart()).isEqualTo(START.plusMinutes(10));
+        assertThat(spike.currentCount()).isEqualTo(20);
+        assertThat(spike.baseline()).isEqualTo(2.0);
+        assertThat(spike.deviation()).isGreaterThanOrEqualTo(3.0);
+        assertThat(spike.windowCount()).isEqualTo(40);
+    }
+
+    @Test
+    void idleGapDecaysTheBaseline() {
+        ErrorRateAnomalyDetector detector = detector(100);
+        for (int minute = 0; minute < 10; minute++) {
+            record(detector, "SFTP-DROP-01", minute, 20);
+        }
+
+        // A month of silence is folded in one step
+        record(detector, "SFTP-DROP-01", 43_200, 5);
+
+        List<ErrorSpike> spikes = detector.getSpikes();
+        assertThat(spikes).hasSize(1);
+        assertThat(spikes.get(0).baseline()).isLessThan(0.001);
+        assertThat(spikes.get(0).windowCount()).isEqualTo(5);
+    }
+
+    @Test
+    void spikeIsNoLongerCurrentOnceNewerBucketsArrive() {
+        ErrorRateAnomalyDetector detector = detector(100);
+        baseline(detector, "PAY-PRC-1002");
+        record(detector, "PAY-PRC-1002", 10, 20);
+
+        record(detector, "CUST-VAL-ERR", 11, 1);
+        assertThat(detector.getSpikes()).extracting(ErrorSpike::errorCode).containsExactly("PAY-PRC-1002");
+
+        record(detector, "CUST-VAL-ERR", 12, 1);
+        assertThat(detector.getSpikes()).isEmpty();
+    }
+
+    @Test
+    void lateEventsAreDropped() {
+        ErrorRateAnomalyDetector detector = detector(100);
+        baseline(detector, "PAY-PRC-1002");
+        record(detector, "PAY-PRC-1002", 10, 20);
+
+        record(detector, "PAY-PRC-1002", 4, 30);
+
+        List<ErrorSpike> spikes = detector.getSpikes();
+        assertThat(spikes).hasSize(1);
+        assertThat(spikes.get(0).currentCount()).isEqualTo(20);
+        assertThat(spikes.get(0).baseline()).isEqualTo(2.0);
+        assertThat(spikes.get(0).windowCount()).isEqualTo(40);
+    }
+
+    @Test
+    void leastRecentlyUpdatedPairIsEvicted() {
+        ErrorRateAnomalyDetector detector = detector(2);
+        baseline(detector, "PAY-PRC-1002");
+        record(detector, "PAY-PRC-1002", 10, 20);
+        record(detector, "CUST-VAL-ERR", 10, 1);
+
+        assertThat(detector.getSpikes()).extracting(ErrorSpike::errorCode).containsExactly("PAY-PRC-1002");
+
+        record(detector, "INT-CALC-FAIL", 10, 1);
+
+        assertThat(detector.getSpikes()).isEmpty();
+    }
+
+    @Test
+    void nonErrorsAreIgnored() {
+        ErrorRateAnomalyDetector detector = detector(100);
+        baseline(detector, "PAY-PRC-1002");
+
+        for (int i = 0; i < 20; i++) {
+            detector.record(new LogEntry(START.plusMinutes(10), "WARN", "PaymentService", "PAY-PRC-1002", null,
+                    "", "Payment Post", "app.log"));
+        }
+
+        assertThat(detector.getSpikes()).isEmpty();
+    }
+
+    /** Ten one-minute buckets of two errors each. */
+    private static void baseline(ErrorRateAnomalyDetector detector, String errorCode) {
+        for (int minute = 0; minute < 10; minute++) {
+            record(detector, errorCode, minute, 2);
+        }
+    }
+
+    private static void record(ErrorRateAnomalyDetector detector, String errorCode, long minute, int count) {
+        for (int i = 0; i < count; i++) {
+            detector.record(new LogEntry(START.plusMinutes(minute).plusSeconds(i % 60), "ERROR", "PaymentService",
+                    errorCode, null, "", "Payment Post", "app.log"));
+        }
+    }
+
+    private static ErrorRateAnomalyDetector detector(int maxKeys) {
+        return new ErrorRateAnomalyDetector(60, 60, 0.3, 3.0, 5, 3, maxKeys);
+    }
+}
@@ -0,0 +1,92 @@
+package com.google.logbot.service;
+
+import com.google.logbot.service.QueryIntentRouter.Intent;
+import com.google.logbot.service.QueryIntentRouter.RoutedAnswer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class QueryIntentRouterTest {
+
+    private final LogAnalysisTools tools = mock(LogAnalysisTools.class);
+    private final QueryIntentRouter router = new QueryIntentRouter(tools, true);
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "Give me a summary of errors; ERROR_SUMMARY",
+            "How many errors were there?; ERROR_SUMMARY",
+            "Summary of errors from 2025-01-01 to 2025-01-31; DATE_RANGE_SUMMARY",
+            "Error summary for yesterday; DATE_RANGE_SUMMARY",
+            "Summarize errors in app-2025-01-01.log; FILE_ERROR_SUMMARY",
+            "Show details for PAY-PRC-1002; ERROR_DETAILS",
+            "List occurrences of 000201S; ERROR_DETAILS",
+            "Which files are ingested?; FILE_LIST",
+            "Are there any error spikes?; ERROR_SPIKES"
+    })
+    void classifiesStructuredQuestions(String question, Intent intent) {
+        assertThat(router.classify(question)).contains(intent);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // Open-ended
+            "Why did PAY-PRC-1002 fail?",
+            "Explain the errors in app.log",
+            // Qualifiers no tool accepts
+            "Summary of payment errors",
+            // More than one code or file
+            "Show details for PAY-PRC-1002 and SFTP-DROP-01",
+            "Summarize errors in a.log and b.log",
+            // Date ignored by the chosen tool
+            "Show details for PAY-PRC-1002 from 2025-01-01",
+            "Are there error spikes today?",
+            "Summarize errors in app.log for 2025-01-01",
+            // File or code ignored by the chosen tool
+            "Show details for PAY-PRC-1002 in app.log",
+            "Summary of errors for PAY-PRC-1002",
+            // Not a real date
+            "Summary of errors on 2025-13-45",
+            // Nothing recognised
+            "Hello there"
+    })
+    void leavesOtherQuestionsToTheLlm(String question) {
+        assertThat(router.classify(question)).isEmpty();
+    }
+
+    @Test
+    void routesToTheMatchingTool() {
+        when(tools.getErrorDetails("PAY-PRC-1002")).thenReturn("details");
+
+        assertThat(router.route("Show details for PAY-PRC-1002"))
+                .contains(new RoutedAnswer(Intent.ERROR_DETAILS, "details"));
+    }
+
+    @Test
+    void passesTheDateRangeToTheTool() {
+        when(tools.getErrorSummaryForDateRange("2025-01-01", "2025-01-31")).thenReturn("range");
+
+        assertThat(router.route("Summary of errors from 2025-01-31 to 2025-01-01"))
+                .contains(new RoutedAnswer(Intent.DATE_RANGE_SUMMARY, "range"));
+    }
+
+    @Test
+    void fallsThroughWithoutCallingTools() {
+        assertThat(router.route("Why did PAY-PRC-1002 fail?")).isEmpty();
+        assertThat(router.route("  ")).isEmpty();
+        verifyNoInteractions(tools);
+    }
+
+    @Test
+    void disabledRouterRoutesNothing() {
+        QueryIntentRouter disabled = new QueryIntentRouter(tools, false);
+
+        assertThat(disabled.route("Give me a summary of errors")).isEmpty();
+        verifyNoInteractions(tools);
+    }
+}
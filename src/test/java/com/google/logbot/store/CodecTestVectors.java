@@ -0,0 +1,81 @@
+package com.google.logbot.store;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Random unit vectors and a recall measure shared by the codec tests.
+ */
+final class CodecTestVectors {
+
+    private CodecTestVectors() {
+    }
+
+    static List<float[]> unitVectors(int count, int dimension, Random random) {
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vectors.add(unitVector(dimension, random));
+        }
+        return vectors;
+    }
+
+    static float[] unitVector(int dimension, Random random) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        float norm = (float) Math.sqrt(dot(vector, vector));
+        for (int i = 0; i < dimension; i++) {
+            vector[i] /= norm;
+        }
+        return vector;
+    }
+
+    static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Encodes the vectors and measures, over random queries, which fraction of
+     * the exact top {@code k} is among the top {@code candidates} by code
+     * score.
+     */
+    static double recall(VectorCodec codec, List<float[]> vectors, int queries, int k, int candidates,
+            Random random) {
+        int codeSize = codec.codeSize();
+        byte[] codes = new byte[vectors.size() * codeSize];
+        for (int i = 0; i < vectors.size(); i++) {
+            codec.encode(vectors.get(i), codes, i * codeSize);
+        }
+
+        int dimension = vectors.get(0).length;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = unitVector(dimension, random);
+            VectorCodec.Scorer scorer = codec.scorer(query);
+            List<Integer> exact = top(vectors.size(), k, row -> dot(query, vectors.get(row)));
+            List<Integer> approximate = top(vectors.size(), candidates, row -> scorer.dot(codes, row * codeSize));
+            found += (int) exact.stream().filter(approximate::contains).count();
+        }
+        return (double) found / (queries * k);
+    }
+
+    private static List<Integer> top(int rows, int k, RowScore score) {
+        return IntStream.range(0, rows).boxed()
+                .sorted(Comparator.comparingDouble((Integer row) -> score.of(row)).reversed())
+                .limit(k)
+                .toList();
+    }
+
+    @FunctionalInterface
+    private interface RowScore {
+        float of(int row);
+    }
+}
@@ -0,0 +1,52 @@
+package com.google.logbot.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class Int8VectorCodecTest {
+
+    private static final int DIMENSION = 64;
+
+    private final Int8VectorCodec codec = new Int8VectorCodec(DIMENSION);
+
+    @Test
+    void codeIsScaleAndOneBytePerComponent() {
+        assertThat(codec.codeSize()).isEqualTo(Float.BYTES + DIMENSION);
+        assertThat(codec.isTrained()).isTrue();
+    }
+
+    @Test
+    void roundTripKeepsDotProducts() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            float[] vector = CodecTestVectors.unitVector(DIMENSION, random);
+            float[] query = CodecTestVectors.unitVector(DIMENSION, random);
+            byte[] code = new byte[3 + codec.codeSize()];
+            codec.encode(vector, code, 3);
+
+            assertThat(codec.scorer(query).dot(code, 3))
+                    .isCloseTo(CodecTestVectors.dot(query, vector), within(0.02f));
+        }
+    }
+
+    @Test
+    void zeroVectorScoresZero() {
+        byte[] code = new byte[codec.codeSize()];
+        codec.encode(new float[DIMENSION], code, 0);
+
+        assertThat(codec.scorer(CodecTestVectors.unitVector(DIMENSION, new Random(2))).dot(code, 0)).isZero();
+    }
+
+    @Test
+    void nearestNeighboursAreRecalled() {
+        Random random = new Random(3);
+        List<float[]> vectors = CodecTestVectors.unitVectors(2000, DIMENSION, random);
+
+        assertThat(CodecTestVectors.recall(codec, vectors, 20, 10, 10, random)).isGreaterThanOrEqualTo(0.9);
+    }
+}
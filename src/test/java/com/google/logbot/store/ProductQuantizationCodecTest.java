@@ -0,0 +1,84 @@
+package com.google.logbot.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ProductQuantizationCodecTest {
+
+    private static final int DIMENSION = 32;
+    private static final int SUBSPACES = 8;
+
+    @Test
+    void needsTrainingBeforeEncoding() {
+        ProductQuantizationCodec codec = codec();
+
+        assertThat(codec.isTrained()).isFalse();
+        assertThat(codec.trainingSize()).isEqualTo(1000);
+        assertThat(codec.codeSize()).isEqualTo(SUBSPACES);
+
+        codec.train(CodecTestVectors.unitVectors(1000, DIMENSION, new Random(1)));
+
+        assertThat(codec.isTrained()).isTrue();
+    }
+
+    @Test
+    void dimensionMustSplitIntoSubspaces() {
+        assertThatThrownBy(() -> new ProductQuantizationCodec(30, SUBSPACES, 1000, 4, 42))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void roundTripApproximatesDotProducts() {
+        Random random = new Random(2);
+        List<float[]> sample = CodecTestVectors.unitVectors(1000, DIMENSION, random);
+        ProductQuantizationCodec codec = codec();
+        codec.train(sample);
+
+        byte[] code = new byte[codec.codeSize()];
+        double error = 0;
+        for (float[] vector : sample.subList(0, 100)) {
+            float[] query = CodecTestVectors.unitVector(DIMENSION, random);
+            codec.encode(vector, code, 0);
+            error += Math.abs(codec.scorer(query).dot(code, 0) - CodecTestVectors.dot(query, vector));
+        }
+
+        assertThat(error / 100).isCloseTo(0, within(0.1));
+    }
+
+    @Test
+    void trainingIsDeterministicForASeed() {
+        List<float[]> sample = CodecTestVectors.unitVectors(1000, DIMENSION, new Random(3));
+        ProductQuantizationCodec first = codec();
+        ProductQuantizationCodec second = codec();
+        first.train(sample);
+        second.train(sample);
+
+        byte[] firstCode = new byte[SUBSPACES];
+        byte[] secondCode = new byte[SUBSPACES];
+        first.encode(sample.get(0), firstCode, 0);
+        second.encode(sample.get(0), secondCode, 0);
+
+        assertThat(firstCode).isEqualTo(secondCode);
+    }
+
+    @Test
+    void nearestNeighboursSurviveReranking() {
+        Random random = new Random(4);
+        List<float[]> vectors = CodecTestVectors.unitVectors(2000, DIMENSION, random);
+        ProductQuantizationCodec codec = codec();
+        codec.train(vectors.subList(0, 1000));
+
+        // The store re-ranks rerankFactor x maxResults candidates with exact vectors
+        assertThat(CodecTestVectors.recall(codec, vectors, 20, 10, 40, random)).isGreaterThanOrEqualTo(0.9);
+    }
+
+    private static ProductQuantizationCodec codec() {
+        return new ProductQuantizationCodec(DIMENSION, SUBSPACES, 1000, 8, 42);
+    }
+}
@@ -0,0 +1,176 @@
+package com.google.logbot.store;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.filter.Filter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuantizedEmbeddingStoreTest {
+
+    private static final int DIMENSION = 32;
+
+    @TempDir
+    Path directory;
+
+    private final Random random = new Random(7);
+
+    @Test
+    void searchReturnsNearestWithSegment() {
+        QuantizedEmbeddingStore store = int8Store();
+        List<float[]> vectors = CodecTestVectors.unitVectors(200, DIMENSION, random);
+        List<String> ids = addAll(store, vectors);
+
+        List<EmbeddingMatch<TextSegment>> matches = search(store, vectors.get(42), 3, null);
+
+        assertThat(matches).hasSize(3);
+        EmbeddingMatch<TextSegment> best = matches.get(0);
+        assertThat(best.embeddingId()).isEqualTo(ids.get(42));
+        assertThat(best.score()).isGreaterThan(0.999);
+        assertThat(best.embedding().vector()).isEqualTo(vectors.get(42));
+        assertThat(best.embedded().text()).isEqualTo("line 42");
+        assertThat(best.embedded().metadata().getString("source_file")).isEqualTo("app-0.log");
+        assertThat(best.embedded().metadata().getInteger("line")).isEqualTo(42);
+    }
+
+    @Test
+    void filterIsAppliedToMetadata() {
+        QuantizedEmbeddingStore store = int8Store();
+        List<float[]> vectors = CodecTestVectors.unitVectors(200, DIMENSION, random);
+        addAll(store, vectors);
+
+        List<EmbeddingMatch<TextSegment>> matches = search(store, vectors.get(42), 10,
+                metadataKey("source_file").isEqualTo("app-1.log"));
+
+        assertThat(matches).hasSize(10);
+        assertThat(matches).allMatch(match -> match.embedded().metadata().getString("source_file").equals("app-1.log"));
+    }
+
+    @Test
+    void pqStoreTrainsAndKeepsFindingRows() {
+        QuantizedEmbeddingStore store = store(new ProductQuantizationCodec(DIMENSION, 8, 256, 4, 42));
+        List<float[]> vectors = CodecTestVectors.unitVectors(300, DIMENSION, random);
+        long int8Bytes = 0;
+        for (int i = 0; i < vectors.size(); i++) {
+            store.add(Embedding.from(vectors.get(i)), segment(i));
+            if (i == 254) {
+                int8Bytes = store.memoryBytes();
+            }
+        }
+
+        assertThat(store.size()).isEqualTo(300);
+        assertThat(store.memoryBytes()).isLessThan(int8Bytes);
+        for (int row : new int[] { 0, 150, 299 }) {
+            assertThat(search(store, vectors.get(row), 1, null).get(0).embedded().text()).isEqualTo("line " + row);
+        }
+    }
+
+    @Test
+    void codeMemoryGrowsWithRows() {
+        QuantizedEmbeddingStore store = int8Store();
+        addAll(store, CodecTestVectors.unitVectors(1, DIMENSION, random));
+        long oneRow = store.memoryBytes();
+
+        addAll(store, CodecTestVectors.unitVectors(1000, DIMENSION, random));
+
+        // A full 16384-row chunk of int8 codes alone would be over 500 KB
+        assertThat(oneRow).isLessThan(32_000);
+        assertThat(store.memoryBytes()).isGreaterThan(oneRow);
+    }
+
+    @Test
+    void reopenedStoreLoadsPreviousRows() {
+        List<float[]> vectors = CodecTestVectors.unitVectors(50, DIMENSION, random);
+        List<String> ids = addAll(int8Store(), vectors);
+
+        QuantizedEmbeddingStore reopened = int8Store();
+
+        assertThat(reopened.size()).isEqualTo(50);
+        EmbeddingMatch<TextSegment> best = search(reopened, vectors.get(7), 1, null).get(0);
+        assertThat(best.embeddingId()).isEqualTo(ids.get(7));
+        assertThat(best.embedded().text()).isEqualTo("line 7");
+
+        reopened.add(Embedding.from(vectors.get(0)), segment(50));
+        assertThat(int8Store().size()).isEqualTo(51);
+    }
+
+    @Test
+    void interruptedRowIsDiscardedOnLoad() throws IOException {
+        addAll(int8Store(), CodecTestVectors.unitVectors(3, DIMENSION, random));
+        Path rowFile = directory.resolve("day.rows");
+        try (FileChannel rows = FileChannel.open(rowFile, StandardOpenOption.WRITE)) {
+            rows.truncate(rows.size() - 2);
+        }
+
+        QuantizedEmbeddingStore reopened = int8Store();
+
+        assertThat(reopened.size()).isEqualTo(2);
+        assertThat(Files.size(directory.resolve("day.f32"))).isEqualTo(2L * DIMENSION * Float.BYTES);
+    }
+
+    @Test
+    void closeDeletesFilesAndEndsSearches() {
+        QuantizedEmbeddingStore store = int8Store();
+        List<float[]> vectors = CodecTestVectors.unitVectors(10, DIMENSION, random);
+        addAll(store, vectors);
+
+        store.close();
+        store.close();
+
+        assertThat(Files.exists(directory.resolve("day.f32"))).isFalse();
+        assertThat(Files.exists(directory.resolve("day.rows"))).isFalse();
+        assertThat(search(store, vectors.get(0), 5, null)).isEmpty();
+        assertThatThrownBy(() -> store.add(Embedding.from(vectors.get(0))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private QuantizedEmbeddingStore int8Store() {
+        return store(new Int8VectorCodec(DIMENSION));
+    }
+
+    private QuantizedEmbeddingStore store(VectorCodec codec) {
+        return new QuantizedEmbeddingStore(codec, DIMENSION, 4, directory.resolve("day.f32"),
+                directory.resolve("day.rows"));
+    }
+
+    private static List<String> addAll(QuantizedEmbeddingStore store, List<float[]> vectors) {
+        List<Embedding> embeddings = new ArrayList<>(vectors.size());
+        List<TextSegment> segments = new ArrayList<>(vectors.size());
+        for (int i = 0; i < vectors.size(); i++) {
+            embeddings.add(Embedding.from(vectors.get(i)));
+            segments.add(segment(store.size() + i));
+        }
+        return store.addAll(embeddings, segments);
+    }
+
+    private static TextSegment segment(int line) {
+        Metadata metadata = Metadata.from("source_file", "app-" + line % 3 + ".log");
+        metadata.put("line", line);
+        return TextSegment.from("line " + line, metadata);
+    }
+
+    private static List<EmbeddingMatch<TextSegment>> search(QuantizedEmbeddingStore store, float[] query,
+            int maxResults, Filter filter) {
+        return store.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(query))
+                .maxResults(maxResults)
+                .filter(filter)
+                .build()).matches();
+    }
+}
@@ -0,0 +1,110 @@
+package com.google.logbot.store;
+
+import com.google.logbot.store.SessionChatMemoryStore.SessionMemoryId;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionChatMemoryStoreTest {
+
+    @Test
+    void sameSessionKeepsItsMemoryId() {
+        SessionChatMemoryStore store = store(2, 1_000_000);
+
+        SessionMemoryId first = store.memoryIdFor("a");
+
+        assertThat(store.memoryIdFor("a")).isEqualTo(first);
+        assertThat(store.memoryIdFor("b")).isNotEqualTo(first);
+    }
+
+    @Test
+    void requestOutlivingItsSlotCannotTouchTheNewOwner() {
+        SessionChatMemoryStore store = store(1, 1_000_000);
+        List<SessionMemoryId> released = new ArrayList<>();
+        store.onRelease(released::add);
+
+        // Session a starts a request, then b takes the only slot while it runs
+        SessionMemoryId a = store.memoryIdFor("a");
+        List<ChatMessage> aHistory = new ArrayList<>(store.getMessages(a));
+        SessionMemoryId b = store.memoryIdFor("b");
+        store.updateMessages(b, List.of(UserMessage.from("b question"), AiMessage.from("b answer")));
+
+        assertThat(b.slot()).isEqualTo(a.slot());
+        assertThat(released).containsExactly(a);
+
+        // a's request finishes and writes back under its stale id
+        aHistory.add(UserMessage.from("a question"));
+        aHistory.add(AiMessage.from("a answer"));
+        store.updateMessages(a, aHistory);
+        store.deleteMessages(a);
+
+        assertThat(store.getMessages(a)).isEmpty();
+        assertThat(store.getMessages(b))
+                .containsExactly(UserMessage.from("b question"), AiMessage.from("b answer"));
+    }
+
+    @Test
+    void reboundSessionGetsANewId() {
+        SessionChatMemoryStore store = store(1, 1_000_000);
+
+        SessionMemoryId first = store.memoryIdFor("a");
+        store.updateMessages(first, List.of(UserMessage.from("hello")));
+        store.memoryIdFor("b");
+        SessionMemoryId second = store.memoryIdFor("a");
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(store.getMessages(second)).isEmpty();
+        store.updateMessages(first, List.of(UserMessage.from("stale")));
+        assertThat(store.getMessages(second)).isEmpty();
+    }
+
+    @Test
+    void overflowEvictsLeastRecentlyUsedSession() {
+        SessionChatMemoryStore store = store(3, 10);
+        List<SessionMemoryId> released = new ArrayList<>();
+        store.onRelease(released::add);
+
+        SessionMemoryId a = store.memoryIdFor("a");
+        store.updateMessages(a, List.of(UserMessage.from("123456")));
+        SessionMemoryId b = store.memoryIdFor("b");
+        store.updateMessages(b, List.of(UserMessage.from("123456")));
+
+        assertThat(released).containsExactly(a);
+        assertThat(store.getMessages(a)).isEmpty();
+        assertThat(store.getMessages(b)).hasSize(1);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void idleSessionsExpire() {
+        SessionChatMemoryStore store = new SessionChatMemoryStore(2, 1_000_000, 4000, Duration.ofMillis(-1));
+        SessionMemoryId a = store.memoryIdFor("a");
+
+        store.evictIdleSessions();
+
+        assertThat(store.size()).isZero();
+        store.updateMessages(a, List.of(UserMessage.from("late")));
+        assertThat(store.getMessages(a)).isEmpty();
+    }
+
+    @Test
+    void unknownMemoryIdsAreIgnored() {
+        SessionChatMemoryStore store = store(1, 1_000_000);
+
+        store.updateMessages(0, List.of(UserMessage.from("raw slot")));
+
+        assertThat(store.getMessages(0)).isEmpty();
+        assertThat(store.size()).isZero();
+    }
+
+    private static SessionChatMemoryStore store(int maxSessions, long maxTotalChars) {
+        return new SessionChatMemoryStore(maxSessions, maxTotalChars, 4000, Duration.ofMinutes(30));
+    }
+}
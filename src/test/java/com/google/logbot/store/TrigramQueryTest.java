@@ -0,0 +1,135 @@
+package com.google.logbot.store;
+
+import com.google.logbot.store.TrigramQuery.AllOf;
+import com.google.logbot.store.TrigramQuery.Any;
+import com.google.logbot.store.TrigramQuery.AnyOf;
+import com.google.logbot.store.TrigramQuery.Literal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramQueryTest {
+
+    @Test
+    void plainTextIsOneLiteral() {
+        assertThat(TrigramQuery.forRegex("SFTP-DROP-01")).isEqualTo(allOf("SFTP-DROP-01"));
+    }
+
+    @Test
+    void topLevelAlternationBecomesAnyOf() {
+        assertThat(TrigramQuery.forRegex("timeout|broken pipe"))
+                .isEqualTo(new AnyOf(List.of(allOf("timeout"), allOf("broken pipe"))));
+    }
+
+    @Test
+    void alternationInsideGroupIsSkipped() {
+        assertThat(TrigramQuery.forRegex("err(or|ors)code")).isEqualTo(allOf("err", "code"));
+    }
+
+    @Test
+    void optionalGroupDoesNotBreakAlternation() {
+        assertThat(TrigramQuery.forRegex("pay(ment)?|x"))
+                .isEqualTo(new AnyOf(List.of(allOf("pay"), allOf("x"))));
+    }
+
+    @Test
+    void quotedSectionIsLiteral() {
+        assertThat(TrigramQuery.forRegex("\\Qa.b*c\\E")).isEqualTo(allOf("a.b*c"));
+    }
+
+    @Test
+    void unterminatedQuoteRunsToTheEnd() {
+        assertThat(TrigramQuery.forRegex("\\Qtail")).isEqualTo(allOf("tail"));
+    }
+
+    @Test
+    void escapedMetacharacterIsLiteral() {
+        assertThat(TrigramQuery.forRegex("a\\.b")).isEqualTo(allOf("a.b"));
+    }
+
+    @Test
+    void optionalCharacterIsDropped() {
+        assertThat(TrigramQuery.forRegex("colou?r")).isEqualTo(allOf("colo", "r"));
+    }
+
+    @Test
+    void repeatedCharacterEndsTheRun() {
+        assertThat(TrigramQuery.forRegex("ab+cd")).isEqualTo(allOf("ab", "cd"));
+    }
+
+    @Test
+    void boundedRepetitionDropsTheCharacter() {
+        assertThat(TrigramQuery.forRegex("a{2}bcd")).isEqualTo(allOf("bcd"));
+    }
+
+    @Test
+    void wildcardSplitsLiterals() {
+        assertThat(TrigramQuery.forRegex("a.*b")).isEqualTo(allOf("a", "b"));
+    }
+
+    @Test
+    void characterClassesAreSkipped() {
+        assertThat(TrigramQuery.forRegex("[abc]def")).isEqualTo(allOf("def"));
+        assertThat(TrigramQuery.forRegex("[]x]yz")).isEqualTo(allOf("yz"));
+    }
+
+    @Test
+    void boundaryEscapesAreSkipped() {
+        assertThat(TrigramQuery.forRegex("\\bpipe\\b")).isEqualTo(allOf("pipe"));
+    }
+
+    @Test
+    void inlineFlagsAreSkipped() {
+        assertThat(TrigramQuery.forRegex("(?i)error")).isEqualTo(allOf("error"));
+    }
+
+    @Test
+    void extendedModeMatchesAnything() {
+        assertThat(TrigramQuery.forRegex("(?x)foo bar")).isEqualTo(new Any());
+        assertThat(TrigramQuery.forRegex("(?ix)foo bar")).isEqualTo(new Any());
+    }
+
+    @Test
+    void unknownEscapeMatchesAnything() {
+        assertThat(TrigramQuery.forRegex("\\p{L}x")).isEqualTo(new Any());
+        assertThat(TrigramQuery.forRegex("abc\\")).isEqualTo(new Any());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "timeout|broken pipe; write failed: broken pipe",
+            "err(or|ors)code; errorscode",
+            "colou?r; color",
+            "ab+cd; abbbcd",
+            "a{2}bcd; aabcd",
+            "sftp-gw-\\d+\\.bank\\.com; SFTP-DROP-01 sftp-gw-12.bank.com",
+            "(?i)payment; PAYMENT posted",
+            "(?x)foo bar; foobar",
+            "\\Qa.b*c\\E; xa.b*cx"
+    })
+    void everyMatchSatisfiesTheQuery(String regex, String text) {
+        assertThat(Pattern.compile(regex).matcher(text).find()).isTrue();
+        assertThat(satisfies(TrigramQuery.forRegex(regex), text)).isTrue();
+    }
+
+    private static AllOf allOf(String... literals) {
+        return new AllOf(List.of(literals).stream().<TrigramQuery>map(Literal::new).toList());
+    }
+
+    /** Evaluates a query directly against text, the way the index does. */
+    private static boolean satisfies(TrigramQuery query, String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        return switch (query) {
+            case Any any -> true;
+            case Literal literal -> lower.contains(literal.text().toLowerCase(Locale.ROOT));
+            case AllOf allOf -> allOf.parts().stream().allMatch(part -> satisfies(part, text));
+            case AnyOf anyOf -> anyOf.parts().stream().anyMatch(part -> satisfies(part, text));
+        };
+    }
+}